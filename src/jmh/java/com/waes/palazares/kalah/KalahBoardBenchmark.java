@@ -0,0 +1,81 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the board engine on positions of random games.
+ * Boards of 6 houses sow with the constants of the default board, the other sizes divide by the number of pits
+ * of the variant. Run the benchmark on two commits to compare the sowing arithmetic before and after a change
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalahBoardBenchmark {
+    private static final int POSITIONS = 1024;
+
+    @Param({"6", "4", "12"})
+    private int houses;
+
+    private final int[][] statuses = new int[POSITIONS][];
+    private final GameState[] states = new GameState[POSITIONS];
+    private final int[] pitIds = new int[POSITIONS];
+    private KalahBoard board;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var variant = KalahVariant.of(houses, 6);
+        var random = new SplittableRandom(42);
+        var game = new KalahBoard(variant).reset();
+        var legalPits = new int[houses];
+        for (int i = 0; i < POSITIONS; i++) {
+            var count = 0;
+            for (int pit = game.firstPitId(); pit < game.firstPitId() + houses; pit++) {
+                if (game.isLegal(pit)) {
+                    legalPits[count++] = pit;
+                }
+            }
+            if (count == 0) {
+                game.reset();
+                i--;
+                continue;
+            }
+            statuses[i] = game.toStatus();
+            states[i] = game.getState();
+            pitIds[i] = legalPits[random.nextInt(count)];
+            game.move(pitIds[i]);
+            if (game.getState() == GameState.FINISHED) {
+                game.reset();
+            }
+        }
+        board = new KalahBoard(variant);
+    }
+
+    @Benchmark
+    public int move() {
+        var i = next++ & POSITIONS - 1;
+        board.load(statuses[i], states[i]).move(pitIds[i]);
+        return board.getLastPit();
+    }
+
+    @Benchmark
+    public int extraTurns() {
+        var i = next++ & POSITIONS - 1;
+        board.load(statuses[i], states[i]);
+        var extraTurns = 0;
+        for (int pit = board.firstPitId(); pit < board.firstPitId() + houses; pit++) {
+            if (board.isLegal(pit) && board.isExtraTurn(pit)) {
+                extraTurns++;
+            }
+        }
+        return extraTurns;
+    }
+}
@@ -0,0 +1,74 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.GameFinishedException;
+import com.waes.palazares.kalah.exception.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game engine: a single move, a full game of random moves and capturing moves
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalahGameBenchmark {
+    private static final UUID ID = UUID.randomUUID();
+
+    private final KalahGameRecord initial =
+            new KalahGameRecord(ID, new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+
+    private final KalahGameRecord[] capturePositions = {
+            new KalahGameRecord(ID, new int[]{6, 2, 6, 0, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN),
+            new KalahGameRecord(ID, new int[]{1, 0, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN),
+            new KalahGameRecord(ID, new int[]{6, 6, 6, 6, 6, 6, 0, 6, 2, 6, 0, 6, 6, 0}, GameState.NORTH_TURN),
+            new KalahGameRecord(ID, new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 1, 0, 0}, GameState.NORTH_TURN)
+    };
+    private final int[] captureMoves = {2, 1, 9, 12};
+
+    private final int[] legalPits = new int[6];
+    private SplittableRandom random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public KalahGameRecord singleMove() throws GameFinishedException, InvalidMoveException {
+        return KalahGame.makeMove(initial, 3);
+    }
+
+    @Benchmark
+    public KalahGameRecord captureMove() throws GameFinishedException, InvalidMoveException {
+        var i = next++ & 3;
+        return KalahGame.makeMove(capturePositions[i], captureMoves[i]);
+    }
+
+    @Benchmark
+    public KalahGameRecord randomGame() throws GameFinishedException, InvalidMoveException {
+        var game = initial;
+        while (game.getState() != GameState.FINISHED) {
+            var first = game.getState() == GameState.SOUTH_TURN ? 1 : 8;
+            var count = 0;
+            for (int pit = first; pit < first + 6; pit++) {
+                if (game.getStatus()[pit - 1] > 0) {
+                    legalPits[count++] = pit;
+                }
+            }
+            if (count == 0) {
+                break;
+            }
+            game = KalahGame.makeMove(game, legalPits[random.nextInt(count)]);
+        }
+        return game;
+    }
+}
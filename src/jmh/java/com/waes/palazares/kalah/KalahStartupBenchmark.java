@@ -0,0 +1,30 @@
+package com.waes.palazares.kalah;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the service until it accepts requests, every fork starts it once in a new JVM.
+ * The prod profile alone connects to MongoDB on the first request, so no database is needed to start it.
+ * Run it alone with {@code gradle jmh -PjmhInclude=KalahStartupBenchmark}
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class KalahStartupBenchmark {
+    @Param({"memory", "memory,prod", "prod"})
+    private String profiles;
+
+    @Benchmark
+    public long start() {
+        try (var context = new SpringApplicationBuilder(KalahWebApplication.class)
+                .run("--spring.profiles.active=" + profiles, "--server.port=0", "--logging.level.root=warn")) {
+            return context.getStartupDate();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.waes.palazares.kalah;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the service over HTTP with the reactive and the blocking stack, both with the in-memory storage.
+ * Requests are sampled by many client threads, so the percentiles of the results show the tail latency.
+ * Moves are made by every client thread on its own games, so they do not conflict, a finished game is replaced
+ * with a new one outside of the measurement.
+ * Run it alone with {@code gradle jmh -PjmhInclude=KalahWebLoadBenchmark}
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class KalahWebLoadBenchmark {
+    private static final int GAMES = 1024;
+    private static final int THREAD_GAMES = 16;
+
+    @Param({"reactive", "blocking"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI gamesUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final URI[] gameUrls = new URI[GAMES];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    /**
+     * Games moved by a client thread, the boards are followed locally to pick legal moves
+     */
+    @State(Scope.Thread)
+    public static class Moves {
+        private final URI[] gameUrls = new URI[THREAD_GAMES];
+        private final KalahBoard[] boards = new KalahBoard[THREAD_GAMES];
+        private final SplittableRandom random = new SplittableRandom();
+        private int next;
+
+        @Setup
+        public void setUp(KalahWebLoadBenchmark benchmark) throws Exception {
+            for (int i = 0; i < THREAD_GAMES; i++) {
+                gameUrls[i] = benchmark.createGameUrl();
+                boards[i] = new KalahBoard(KalahVariant.DEFAULT).reset();
+            }
+        }
+
+        /**
+         * Runs before every move, but only creates a game when the next one has finished
+         */
+        @Setup(Level.Invocation)
+        public void replaceFinished(KalahWebLoadBenchmark benchmark) throws Exception {
+            var i = next & (THREAD_GAMES - 1);
+            if (boards[i].getState() == GameState.FINISHED) {
+                gameUrls[i] = benchmark.createGameUrl();
+                boards[i].reset();
+            }
+        }
+
+        private URI nextMove() {
+            var i = next++ & (THREAD_GAMES - 1);
+            var board = boards[i];
+            int pitId;
+            do {
+                pitId = board.firstPitId() + random.nextInt(KalahVariant.DEFAULT.getHouses());
+            } while (!board.isLegal(pitId));
+            board.move(pitId);
+            return URI.create(gameUrls[i] + "/pits/" + pitId);
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        var profiles = "blocking".equals(stack) ? "memory,blocking" : "memory";
+        context = new SpringApplicationBuilder(KalahWebApplication.class)
+                .run("--spring.profiles.active=" + profiles, "--server.port=0", "--logging.level.root=warn");
+        var port = context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        gamesUrl = URI.create("http://localhost:" + port + "/games");
+
+        for (int i = 0; i < GAMES; i++) {
+            gameUrls[i] = createGameUrl();
+        }
+    }
+
+    private URI createGameUrl() throws Exception {
+        var body = client.send(HttpRequest.newBuilder(gamesUrl).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        return URI.create(mapper.readTree(body).get("url").asText());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getGame(Cursor cursor) throws Exception {
+        var url = gameUrls[cursor.next++ & (GAMES - 1)];
+        return client.send(HttpRequest.newBuilder(url).GET().build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int createGame() throws Exception {
+        var request = HttpRequest.newBuilder(gamesUrl).POST(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int makeTurn(Moves moves) throws Exception {
+        var request = HttpRequest.newBuilder(moves.nextMove()).PUT(HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
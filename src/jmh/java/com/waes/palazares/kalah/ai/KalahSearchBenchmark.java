@@ -0,0 +1,37 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.domain.GameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the fixed depth search from the initial position.
+ * The search instance is reused, the same way {@link KalahAi} reuses it per thread,
+ * so after the first invocation the transposition table is warm
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalahSearchBenchmark {
+    private static final int[] INITIAL = {6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+    private static final long NO_LIMIT = TimeUnit.SECONDS.toNanos(10);
+
+    @Param({"6", "10"})
+    private int depth;
+
+    private KalahSearch search;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        search = new KalahSearch(18);
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        return search.search(INITIAL, GameState.SOUTH_TURN, depth, NO_LIMIT);
+    }
+}
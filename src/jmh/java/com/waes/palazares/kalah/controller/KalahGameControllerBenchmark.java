@@ -0,0 +1,46 @@
+package com.waes.palazares.kalah.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.palazares.kalah.domain.KalahGameCompactState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahGameState;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game record conversion to the response and its JSON serialization
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KalahGameControllerBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final URI baseUrl = URI.create("http://localhost:8080/games");
+    private final KalahGameRecord game = new KalahGameRecord();
+
+    @Benchmark
+    public KalahGameState toState() {
+        return KalahGameHandler.toState(game, baseUrl);
+    }
+
+    @Benchmark
+    public byte[] toStateJson() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(KalahGameHandler.toState(game, baseUrl));
+    }
+
+    @Benchmark
+    public KalahGameCompactState toCompactState() {
+        return KalahGameHandler.toCompactState(game, baseUrl);
+    }
+
+    @Benchmark
+    public byte[] toCompactStateJson() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(KalahGameHandler.toCompactState(game, baseUrl));
+    }
+}
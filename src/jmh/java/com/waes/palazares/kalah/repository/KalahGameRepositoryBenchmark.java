@@ -0,0 +1,77 @@
+package com.waes.palazares.kalah.repository;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.repository.journal.JournalKalahGameRepository;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahGameRepository;
+import com.waes.palazares.kalah.repository.memory.LocalKalahGameRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the game save and load by the local storages, including the compaction of the journal
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KalahGameRepositoryBenchmark {
+    private static final int GAMES = 100_000;
+
+    @Param({"memory", "journal"})
+    private String storage;
+
+    private Path directory;
+    private LocalKalahGameRepository repository;
+    private final KalahGameRecord[] games = new KalahGameRecord[GAMES];
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("kalah-journal");
+        repository = "journal".equals(storage) ?
+                new JournalKalahGameRepository(directory.resolve("games.journal").toString(), GAMES * 4, 1000, 3600) :
+                new InMemoryKalahGameRepository();
+        for (int i = 0; i < GAMES; i++) {
+            games[i] = repository.save(new KalahGameRecord()).block();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (repository instanceof JournalKalahGameRepository) {
+            ((JournalKalahGameRepository) repository).destroy();
+        }
+        try (var files = Files.list(directory)) {
+            files.forEach(x -> x.toFile().delete());
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public KalahGameRecord find(Cursor cursor) {
+        return repository.findById(games[cursor.next++ % GAMES].getId()).block();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public KalahGameRecord findConcurrently(Cursor cursor) {
+        return repository.findById(games[cursor.next++ % GAMES].getId()).block();
+    }
+
+    @Benchmark
+    public KalahGameRecord save(Cursor cursor) {
+        // the stored version changes with every save, so the latest record is saved again
+        var id = games[cursor.next++ % GAMES].getId();
+        return repository.save(repository.findById(id).block()).block();
+    }
+}
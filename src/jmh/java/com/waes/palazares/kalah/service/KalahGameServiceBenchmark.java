@@ -0,0 +1,110 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.ai.KalahAi;
+import com.waes.palazares.kalah.ai.ParallelKalahAi;
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.endgame.KalahEndgameTable;
+import com.waes.palazares.kalah.event.KalahGameEvents;
+import com.waes.palazares.kalah.history.KalahGameHistory;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahGameRepository;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahGameSnapshotRepository;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahMoveEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the service move against the in-memory storage, with the optimistic executor, the move log
+ * and the write-behind batches.
+ * Moves are spread over a pool of games, finished games are replaced with new ones.
+ * Rejected moves and pit ids are measured against the same games, they are not applied
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KalahGameServiceBenchmark {
+    private static final int GAMES = 1024;
+    private static final String[] PIT_IDS = {"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14"};
+
+    @Param({"optimistic", "events", "write-behind"})
+    private String mode;
+
+    private MoveExecutor executor;
+    private KalahGameServiceImpl service;
+    private final KalahGameRecord[] games = new KalahGameRecord[GAMES];
+    private final String[] ids = new String[GAMES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var metrics = new KalahGameMetrics(new SimpleMeterRegistry());
+        var cache = new KalahGameCache(new InMemoryKalahGameRepository(), metrics, GAMES * 2, 600, 86400, 604800);
+        var history = new KalahGameHistory(new InMemoryKalahMoveEventRepository(), new InMemoryKalahGameSnapshotRepository(), metrics, 32);
+        executor = "events".equals(mode) ? new EventSourcedMoveExecutor(cache, history, 3, 3600) :
+                "write-behind".equals(mode) ? new WriteBehindMoveExecutor(cache, metrics, 3, 256, 50, 10000, "enqueue") :
+                new OptimisticMoveExecutor(cache, 3);
+        service = new KalahGameServiceImpl(cache, executor, metrics, new KalahGameEvents(60),
+                new KalahAi(32, 50, 18), new ParallelKalahAi(1, 32, 50, 18), new KalahEndgameTable(""), history, 100, 1000, 20, 100);
+        for (int i = 0; i < GAMES; i++) {
+            newGame(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (executor instanceof WriteBehindMoveExecutor) {
+            ((WriteBehindMoveExecutor) executor).destroy();
+        }
+    }
+
+    @Benchmark
+    public KalahGameRecord move() {
+        var i = next++ & (GAMES - 1);
+        var pit = firstLegalPit(games[i]);
+        if (pit < 0) {
+            newGame(i);
+            pit = 0;
+        }
+        games[i] = service.move(ids[i], PIT_IDS[pit]).block();
+        return games[i];
+    }
+
+    @Benchmark
+    public Object illegalMove() {
+        var i = next++ & (GAMES - 1);
+        var pit = games[i].getState() == GameState.SOUTH_TURN ? "8" : "1";
+        return service.move(ids[i], pit).cast(Object.class).onErrorResume(Mono::just).block();
+    }
+
+    @Benchmark
+    public Object invalidPitId() {
+        var i = next++ & (GAMES - 1);
+        return service.move(ids[i], "x").cast(Object.class).onErrorResume(Mono::just).block();
+    }
+
+    private void newGame(int i) {
+        games[i] = service.create().block();
+        ids[i] = games[i].getId().toString();
+    }
+
+    private static int firstLegalPit(KalahGameRecord game) {
+        if (game.getState() == GameState.FINISHED) {
+            return -1;
+        }
+        var first = game.getState() == GameState.SOUTH_TURN ? 0 : 7;
+        for (int pit = first; pit < first + 6; pit++) {
+            if (game.getStatus()[pit] > 0) {
+                return pit;
+            }
+        }
+        return -1;
+    }
+}
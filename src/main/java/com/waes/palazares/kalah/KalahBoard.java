@@ -0,0 +1,310 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+
+/**
+ * Primitive, mutable Kalah board engine.
+ * Keeps the pits in a reusable array together with running house totals,
+ * so sowing and the game end check never allocate or rescan the board.
+ * The board layout and the capture rule are defined by the {@link KalahVariant} and kept in final fields.
+ * Boards of 6 houses sow with the constants of the default board, so the JIT turns the division by the number
+ * of pits into a multiplication, other boards divide by the field. The constants describe the default board.
+ * Instances are not thread safe and are meant to be reused by a single thread.
+ */
+public final class KalahBoard {
+    public static final int PITS = 14;
+    public static final int SOUTH_STORE = 6;
+    public static final int NORTH_STORE = 13;
+    private static final int MIRROR = PITS - 2;
+
+    private final KalahVariant variant;
+    private final int houses;
+    private final int pitCount;
+    private final int southStore;
+    private final int northStore;
+    // index of the pit on the opposite side of the board is mirror - index: 0-12, 1-11, ... 12-0 for 6 houses
+    private final int mirror;
+    private final boolean emptyCapture;
+
+    private final int[] pits;
+    private int southHouses;
+    private int northHouses;
+    private int total;
+    private GameState state;
+    private int lastPit;
+    private int lastCapture;
+
+    /**
+     * Creates the default 6x6 board
+     */
+    public KalahBoard() {
+        this(KalahVariant.DEFAULT);
+    }
+
+    public KalahBoard(KalahVariant variant) {
+        this.variant = variant;
+        houses = variant.getHouses();
+        pitCount = variant.getPits();
+        southStore = variant.getSouthStore();
+        northStore = variant.getNorthStore();
+        mirror = houses * 2;
+        emptyCapture = variant.isEmptyCapture();
+        pits = new int[pitCount];
+    }
+
+    /**
+     * Loads the board from the game status
+     *
+     * @param status pits of the game
+     * @param state  game state
+     * @return this board
+     */
+    public KalahBoard load(int[] status, GameState state) {
+        System.arraycopy(status, 0, pits, 0, pitCount);
+        southHouses = 0;
+        northHouses = 0;
+        for (int i = 0; i < houses; i++) {
+            southHouses += pits[i];
+            northHouses += pits[i + southStore + 1];
+        }
+        total = southHouses + northHouses + pits[southStore] + pits[northStore];
+        this.state = state;
+        lastPit = -1;
+        lastCapture = 0;
+        return this;
+    }
+
+    /**
+     * Sets up the start of the game without allocation
+     *
+     * @return this board
+     */
+    public KalahBoard reset() {
+        for (int i = 0; i < houses; i++) {
+            pits[i] = variant.getSeeds();
+            pits[i + southStore + 1] = variant.getSeeds();
+        }
+        pits[southStore] = 0;
+        pits[northStore] = 0;
+        southHouses = houses * variant.getSeeds();
+        northHouses = southHouses;
+        total = southHouses * 2;
+        state = GameState.SOUTH_TURN;
+        lastPit = -1;
+        lastCapture = 0;
+        return this;
+    }
+
+    /**
+     * Copies another board of the same variant into this one
+     *
+     * @param other board to copy
+     * @return this board
+     */
+    public KalahBoard copyFrom(KalahBoard other) {
+        System.arraycopy(other.pits, 0, pits, 0, pitCount);
+        southHouses = other.southHouses;
+        northHouses = other.northHouses;
+        total = other.total;
+        state = other.state;
+        lastPit = other.lastPit;
+        lastCapture = other.lastCapture;
+        return this;
+    }
+
+    /**
+     * Checks whether the pit can be played in the current state
+     *
+     * @param pitId pit id (from 1 to the number of pits)
+     * @return true if the pit belongs to the player to move and is not empty
+     */
+    public boolean isLegal(int pitId) {
+        var index = pitId - 1;
+        if (state == GameState.SOUTH_TURN) {
+            return index >= 0 && index < southStore && pits[index] > 0;
+        }
+        if (state == GameState.NORTH_TURN) {
+            return index > southStore && index < northStore && pits[index] > 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return id of the first pit of the player to move
+     */
+    public int firstPitId() {
+        return state == GameState.NORTH_TURN ? southStore + 2 : 1;
+    }
+
+    /**
+     * Makes a move without any validation. The caller must check {@link #isLegal(int)} first
+     *
+     * @param pitId pit id (from 1 to the number of pits)
+     */
+    public void move(int pitId) {
+        var index = pitId - 1;
+        var seeds = pits[index];
+        pits[index] = 0;
+        if (index < southStore) {
+            southHouses -= seeds;
+        } else {
+            northHouses -= seeds;
+        }
+
+        // every full lap drops one seed into each pit, including the emptied one and both stores
+        var laps = laps(seeds);
+        if (laps > 0) {
+            for (int i = 0; i < pitCount; i++) {
+                pits[i] += laps;
+            }
+            southHouses += laps * houses;
+            northHouses += laps * houses;
+        }
+
+        var pit = index;
+        for (int remainder = seeds - laps * pitCount; remainder > 0; remainder--) {
+            if (++pit == pitCount) {
+                pit = 0;
+            }
+            pits[pit]++;
+            if (pit < southStore) {
+                southHouses++;
+            } else if (pit > southStore && pit < northStore) {
+                northHouses++;
+            }
+        }
+
+        lastPit = wrap(index + seeds);
+        lastCapture = 0;
+        captureIfRequired();
+        state = nextState();
+    }
+
+    private void captureIfRequired() {
+        if (pits[lastPit] != 1) {
+            return;
+        }
+        var ownStore = state == GameState.SOUTH_TURN ? southStore : northStore;
+        if (lastPit >= ownStore || lastPit < ownStore - houses) {
+            return;
+        }
+        var captured = opposite(lastPit);
+        var seeds = pits[captured];
+        if (seeds == 0 && !emptyCapture) {
+            return;
+        }
+        pits[ownStore] += seeds + 1;
+        pits[lastPit] = 0;
+        pits[captured] = 0;
+        lastCapture = seeds + 1;
+        if (ownStore == southStore) {
+            southHouses--;
+            northHouses -= seeds;
+        } else {
+            northHouses--;
+            southHouses -= seeds;
+        }
+    }
+
+    private int laps(int seeds) {
+        return pitCount == PITS ? seeds / PITS : seeds / pitCount;
+    }
+
+    private int wrap(int index) {
+        return pitCount == PITS ? index % PITS : index % pitCount;
+    }
+
+    private int opposite(int index) {
+        return pitCount == PITS ? MIRROR - index : mirror - index;
+    }
+
+    private GameState nextState() {
+        if (isFinished()) {
+            return GameState.FINISHED;
+        }
+        if (lastPit == southStore || lastPit == northStore) {
+            return state;
+        }
+
+        return state == GameState.SOUTH_TURN ? GameState.NORTH_TURN : GameState.SOUTH_TURN;
+    }
+
+    /**
+     * Game end check in constant time.
+     * Note that the north side counts its store as well, the same way the original rules did
+     *
+     * @return true if the game is over
+     */
+    public boolean isFinished() {
+        var half = total / 2;
+        return southHouses == 0 || northHouses + pits[northStore] == 0 ||
+                pits[southStore] > half || pits[northStore] > half;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * @return index of the pit the last seed of the previous move was dropped to, or -1
+     */
+    public int getLastPit() {
+        return lastPit;
+    }
+
+    /**
+     * @return number of seeds moved to the store by the capture of the previous move, 0 when there was no capture
+     */
+    public int getLastCapture() {
+        return lastCapture;
+    }
+
+    /**
+     * Checks whether the last seed of the pit lands in a store, which gives another turn
+     *
+     * @param pitId pit id (from 1 to the number of pits)
+     * @return true if the move gives another turn
+     */
+    public boolean isExtraTurn(int pitId) {
+        var last = wrap(pitId - 1 + pits[pitId - 1]);
+        return last == southStore || last == northStore;
+    }
+
+    public int get(int index) {
+        return pits[index];
+    }
+
+    public int getSouthHouses() {
+        return southHouses;
+    }
+
+    public int getNorthHouses() {
+        return northHouses;
+    }
+
+    public KalahVariant getVariant() {
+        return variant;
+    }
+
+    public int getHouses() {
+        return houses;
+    }
+
+    public int getSouthStore() {
+        return southStore;
+    }
+
+    public int getNorthStore() {
+        return northStore;
+    }
+
+    /**
+     * @return new array with the current pits
+     */
+    public int[] toStatus() {
+        var status = new int[pitCount];
+        System.arraycopy(pits, 0, status, 0, pitCount);
+        return status;
+    }
+}
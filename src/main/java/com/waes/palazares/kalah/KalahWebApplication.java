@@ -2,14 +2,6 @@ package com.waes.palazares.kalah;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
-import org.springframework.web.reactive.function.server.RouterFunction;
-import org.springframework.web.reactive.function.server.ServerResponse;
-
-import java.net.URI;
-
-import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
-import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
 @SpringBootApplication
 public class KalahWebApplication {
@@ -17,11 +9,4 @@ public class KalahWebApplication {
     public static void main(String[] args) {
         SpringApplication.run(KalahWebApplication.class, args);
     }
-
-    @Bean
-    RouterFunction<ServerResponse> routerFunction() {
-        return route(GET("/"), req ->
-                ServerResponse.temporaryRedirect(URI.create("swagger-ui.html"))
-                        .build());
-    }
 }
@@ -0,0 +1,54 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer player. Finds the best move of the player to move with {@link KalahSearch}.
+ * All searches share one lock-free {@link TranspositionTable}, so its size does not grow with the number of threads
+ * running searches. Every thread reuses its own search instance, which only holds the boards and move lists,
+ * the search is replaced by one of the game variant when the variant changes.
+ * Requested depth and time are capped by the configured limits, so a search is bounded in wall time
+ */
+@Component
+public class KalahAi {
+    private final TranspositionTable table;
+    private final ThreadLocal<KalahSearch> searches;
+    private final int maxDepth;
+    private final long maxTimeMillis;
+
+    public KalahAi(@Value("${kalah.ai.max-depth:32}") int maxDepth,
+                   @Value("${kalah.ai.max-time-millis:50}") long maxTimeMillis,
+                   @Value("${kalah.ai.table-bits:18}") int tableBits) {
+        this.maxDepth = Math.min(maxDepth, KalahSearch.MAX_DEPTH);
+        this.maxTimeMillis = maxTimeMillis;
+        this.table = new TranspositionTable(tableBits);
+        this.searches = ThreadLocal.withInitial(() -> new KalahSearch(table));
+    }
+
+    /**
+     * Searches the best move of the game
+     *
+     * @param game       game to search
+     * @param depth      requested depth in plies, the limit is used when null
+     * @param timeMillis requested time in milliseconds, the limit is used when null
+     * @return best move, with pit id -1 when the game has no legal move
+     */
+    public SearchResult bestMove(KalahGameRecord game, Integer depth, Integer timeMillis) {
+        var searchDepth = depth == null ? maxDepth : Math.min(depth, maxDepth);
+        var searchTime = timeMillis == null ? maxTimeMillis : Math.min(timeMillis, maxTimeMillis);
+        return search(game).search(game.getStatus(), game.getState(), searchDepth, TimeUnit.MILLISECONDS.toNanos(searchTime));
+    }
+
+    private KalahSearch search(KalahGameRecord game) {
+        var search = searches.get();
+        if (!search.getVariant().equals(game.getVariant())) {
+            search = new KalahSearch(game.getVariant(), table);
+            searches.set(search);
+        }
+        return search;
+    }
+}
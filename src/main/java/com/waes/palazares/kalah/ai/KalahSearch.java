@@ -0,0 +1,320 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative deepening alpha-beta search over {@link KalahBoard}.
+ * Boards, move lists and the transposition table are allocated once, so a search does not allocate
+ * apart from its result. Moves that give another turn are searched first, after the move from the table.
+ * Instances are not thread safe and are meant to be reused by a single thread,
+ * the {@link TranspositionTable} may be shared by instances of different threads.
+ */
+public final class KalahSearch {
+    public static final int MAX_DEPTH = 64;
+
+    private static final int INFINITY = 1_000_000;
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+    // the clock is checked every 1024 nodes
+    private static final long CLOCK_MASK = 1023;
+
+    // all the seeds of the largest board may end up in one pit
+    private static final int MAX_PIT_SEEDS = KalahVariant.MAX_HOUSES * 2 * KalahVariant.MAX_SEEDS;
+    private static final long[][] ZOBRIST = new long[KalahVariant.MAX_PITS][MAX_PIT_SEEDS + 1];
+    private static final long NORTH_KEY;
+    private static final long NO_EMPTY_CAPTURE_KEY;
+
+    static {
+        var random = new SplittableRandom(0x6b616c6168L);
+        for (long[] keys : ZOBRIST) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+        NORTH_KEY = random.nextLong();
+        NO_EMPTY_CAPTURE_KEY = random.nextLong();
+    }
+
+    private final KalahBoard[] boards = new KalahBoard[MAX_DEPTH + 1];
+    private final int[][] moves = new int[MAX_DEPTH + 1][KalahVariant.MAX_HOUSES];
+    private final KalahVariant variant;
+    private final TranspositionTable table;
+    // variants with the same layout and different capture rules may share a table
+    private final long variantKey;
+
+    private long nodes;
+    private long deadline;
+    private AtomicBoolean stop;
+    private boolean aborted;
+    private boolean depthLimited;
+
+    /**
+     * @param tableBits size of the transposition table as a power of two
+     */
+    public KalahSearch(int tableBits) {
+        this(new TranspositionTable(tableBits));
+    }
+
+    /**
+     * @param table transposition table, may be shared with searches of other threads
+     */
+    public KalahSearch(TranspositionTable table) {
+        this(KalahVariant.DEFAULT, table);
+    }
+
+    /**
+     * @param variant board variant of the searched games
+     * @param table   transposition table, may be shared with searches of other threads
+     */
+    public KalahSearch(KalahVariant variant, TranspositionTable table) {
+        for (int i = 0; i < boards.length; i++) {
+            boards[i] = new KalahBoard(variant);
+        }
+        this.variant = variant;
+        this.table = table;
+        this.variantKey = variant.isEmptyCapture() ? 0 : NO_EMPTY_CAPTURE_KEY;
+    }
+
+    public KalahVariant getVariant() {
+        return variant;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Searches the best move within the depth and time budget.
+     * The result of the last completed iteration is returned, the first one is always completed
+     *
+     * @param status     pits of the game
+     * @param state      game state
+     * @param maxDepth   maximum search depth in plies
+     * @param timeNanos  time budget
+     * @return best move
+     */
+    public SearchResult search(int[] status, GameState state, int maxDepth, long timeNanos) {
+        return search(status, state, maxDepth, timeNanos, 1, new AtomicBoolean());
+    }
+
+    /**
+     * Searches the best move within the depth and time budget, starting with the given depth.
+     * The search is also aborted when the stop flag is set by another thread.
+     * When the first depth is 1, the result of the first iteration is returned even after the stop
+     *
+     * @param status     pits of the game
+     * @param state      game state
+     * @param maxDepth   maximum search depth in plies
+     * @param timeNanos  time budget
+     * @param firstDepth depth of the first iteration
+     * @param stop       stop flag
+     * @return best move, with depth 0 when no iteration has been completed
+     */
+    public SearchResult search(int[] status, GameState state, int maxDepth, long timeNanos, int firstDepth, AtomicBoolean stop) {
+        var root = boards[0].load(status, state);
+        nodes = 0;
+        aborted = false;
+        deadline = System.nanoTime() + timeNanos;
+        this.stop = stop;
+
+        if (state == GameState.FINISHED) {
+            return new SearchResult(-1, score(root, GameState.SOUTH_TURN), 0, 0);
+        }
+        var count = generate(root, 0, -1);
+        if (count == 0) {
+            return new SearchResult(-1, score(root, state), 0, 0);
+        }
+
+        var bestPit = moves[0][0];
+        var bestScore = 0;
+        var completed = 0;
+        var depthLimit = Math.max(1, Math.min(maxDepth, MAX_DEPTH));
+        for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit; depth++) {
+            depthLimited = false;
+            count = generate(root, 0, bestPit);
+            var alpha = -INFINITY;
+            var iterationPit = -1;
+            for (int i = 0; i < count; i++) {
+                var pit = moves[0][i];
+                var score = child(root, 0, pit, depth, alpha, INFINITY);
+                // the first iteration always completes, so there is a move to return
+                if (aborted && depth > 1) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationPit = pit;
+                }
+            }
+            if (aborted && depth > 1) {
+                break;
+            }
+            bestPit = iterationPit;
+            bestScore = alpha;
+            completed = depth;
+            if (aborted || !depthLimited) {
+                // either out of time or the whole game tree was searched
+                break;
+            }
+        }
+
+        return new SearchResult(bestPit, bestScore, completed, nodes);
+    }
+
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        var board = boards[ply];
+        var side = board.getState();
+        if ((++nodes & CLOCK_MASK) == 0 && (System.nanoTime() > deadline || stop.get())) {
+            aborted = true;
+        }
+        // nodes of the first iteration have no depth left, so it is completed regardless of the clock
+        if (aborted && depth > 0) {
+            return 0;
+        }
+        if (depth == 0) {
+            depthLimited = true;
+            return score(board, side);
+        }
+
+        var key = hash(board) ^ variantKey;
+        var entry = table.get(key);
+        var tablePit = -1;
+        if (entry != 0) {
+            tablePit = entryPit(entry);
+            // solved entries do not depend on the depth
+            var solved = entrySolved(entry);
+            if (solved || entryDepth(entry) >= depth) {
+                var score = entryScore(entry);
+                var bound = entryBound(entry);
+                if (bound == EXACT || bound == LOWER && score >= beta || bound == UPPER && score <= alpha) {
+                    depthLimited |= !solved;
+                    return score;
+                }
+            }
+        }
+
+        var count = generate(board, ply, tablePit);
+        if (count == 0) {
+            // north may have seeds in the store only, there is no move to make
+            return score(board, side);
+        }
+
+        var originalAlpha = alpha;
+        var outerLimited = depthLimited;
+        depthLimited = false;
+        var best = -INFINITY;
+        var bestPit = moves[ply][0];
+        for (int i = 0; i < count; i++) {
+            var pit = moves[ply][i];
+            var score = child(board, ply, pit, depth, alpha, beta);
+            if (score > best) {
+                best = score;
+                bestPit = pit;
+                if (best > alpha) {
+                    alpha = best;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (aborted) {
+            return best;
+        }
+
+        var bound = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        table.put(key, entry(best, depth, bound, bestPit, !depthLimited));
+        depthLimited |= outerLimited;
+        return best;
+    }
+
+    /**
+     * Plays the pit on the next ply board and scores it for the side that played it
+     */
+    private int child(KalahBoard board, int ply, int pit, int depth, int alpha, int beta) {
+        var side = board.getState();
+        var next = boards[ply + 1].copyFrom(board);
+        next.move(pit);
+        var nextState = next.getState();
+        if (nextState == GameState.FINISHED) {
+            nodes++;
+            return score(next, side);
+        }
+        if (nextState == side) {
+            return negamax(ply + 1, depth - 1, alpha, beta);
+        }
+        return -negamax(ply + 1, depth - 1, -beta, -alpha);
+    }
+
+    /**
+     * Fills the move list of the ply: the preferred pit, then moves giving another turn, then the rest
+     *
+     * @return number of legal moves
+     */
+    private int generate(KalahBoard board, int ply, int preferredPit) {
+        var list = moves[ply];
+        var first = board.firstPitId();
+        var last = first + board.getHouses();
+        var count = 0;
+        if (preferredPit > 0 && board.isLegal(preferredPit)) {
+            list[count++] = preferredPit;
+        }
+        for (int pit = first; pit < last; pit++) {
+            if (pit != preferredPit && board.isLegal(pit) && board.isExtraTurn(pit)) {
+                list[count++] = pit;
+            }
+        }
+        for (int pit = first; pit < last; pit++) {
+            if (pit != preferredPit && board.isLegal(pit) && !board.isExtraTurn(pit)) {
+                list[count++] = pit;
+            }
+        }
+        return count;
+    }
+
+    private static int score(KalahBoard board, GameState side) {
+        var difference = board.get(board.getSouthStore()) - board.get(board.getNorthStore());
+        return side == GameState.NORTH_TURN ? -difference : difference;
+    }
+
+    static long hash(KalahBoard board) {
+        var key = board.getState() == GameState.NORTH_TURN ? NORTH_KEY : 0;
+        for (int i = 0, pits = board.getNorthStore() + 1; i < pits; i++) {
+            key ^= ZOBRIST[i][board.get(i)];
+        }
+        return key;
+    }
+
+    // entry layout: score (16 bits, biased) | depth (8 bits) | bound (2 bits) | pit (6 bits) | solved (1 bit),
+    // pit is never 0, so neither is the entry
+    private static long entry(int score, int depth, int bound, int pit, boolean solved) {
+        return (score + 0x8000) & 0xFFFF | (long) depth << 16 | (long) bound << 24 | (long) pit << 26 |
+                (solved ? 1L << 32 : 0);
+    }
+
+    private static int entryScore(long entry) {
+        return (int) (entry & 0xFFFF) - 0x8000;
+    }
+
+    private static int entryDepth(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    private static int entryBound(long entry) {
+        return (int) (entry >>> 24) & 0x3;
+    }
+
+    private static int entryPit(long entry) {
+        return (int) (entry >>> 26) & 0x3F;
+    }
+
+    private static boolean entrySolved(long entry) {
+        return (entry & 1L << 32) != 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel best move analysis with Lazy SMP.
+ * Every search runs the same iterative deepening on all threads of a dedicated {@link ForkJoinPool},
+ * threads only cooperate through the shared lock-free {@link TranspositionTable}.
+ * The table is allocated by the first search, so an instance which is never asked for an analysis does not hold it.
+ * Search instances of the threads are replaced by ones of the game variant when the variant changes.
+ * Every other helper thread starts one ply deeper, so helpers fill the table ahead of the main thread.
+ * Helpers are stopped when the main thread completes, the deepest completed result is returned
+ * with the nodes of all threads
+ */
+@Component
+@Slf4j
+public class ParallelKalahAi implements DisposableBean {
+    private final ForkJoinPool pool;
+    private final ThreadLocal<KalahSearch> searches;
+    private final int tableBits;
+    private final int threads;
+    private final int maxDepth;
+    private final long maxTimeMillis;
+    private volatile TranspositionTable table;
+
+    public ParallelKalahAi(@Value("${kalah.ai.parallel.threads:0}") int threads,
+                           @Value("${kalah.ai.max-depth:32}") int maxDepth,
+                           @Value("${kalah.ai.max-time-millis:50}") long maxTimeMillis,
+                           @Value("${kalah.ai.parallel.table-bits:20}") int tableBits) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxDepth = Math.min(maxDepth, KalahSearch.MAX_DEPTH);
+        this.maxTimeMillis = maxTimeMillis;
+        this.tableBits = tableBits;
+        this.searches = ThreadLocal.withInitial(() -> new KalahSearch(table()));
+        this.pool = new ForkJoinPool(this.threads, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("kalah-search-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        log.info("Parallel search uses {} threads", this.threads);
+    }
+
+    /**
+     * Searches the best move of the game on all search threads
+     *
+     * @param game       game to search
+     * @param depth      requested depth in plies, the limit is used when null
+     * @param timeMillis requested time in milliseconds, the limit is used when null
+     * @return best move, with pit id -1 when the game has no legal move
+     */
+    public CompletableFuture<SearchResult> bestMove(KalahGameRecord game, Integer depth, Integer timeMillis) {
+        var searchDepth = depth == null ? maxDepth : Math.min(depth, maxDepth);
+        var searchTime = TimeUnit.MILLISECONDS.toNanos(timeMillis == null ? maxTimeMillis : Math.min(timeMillis, maxTimeMillis));
+        var stop = new AtomicBoolean();
+
+        var results = new ArrayList<CompletableFuture<SearchResult>>(threads);
+        for (int i = 0; i < threads; i++) {
+            var firstDepth = 1 + i % 2;
+            results.add(CompletableFuture.supplyAsync(() -> search(game)
+                    .search(game.getStatus(), game.getState(), searchDepth, searchTime, firstDepth, stop), pool));
+        }
+        results.get(0).whenComplete((x, e) -> stop.set(true));
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).thenApply(x -> {
+            var best = results.get(0).join();
+            var nodes = 0L;
+            for (var result : results) {
+                nodes += result.join().getNodes();
+                if (result.join().getDepth() > best.getDepth()) {
+                    best = result.join();
+                }
+            }
+            return new SearchResult(best.getPitId(), best.getScore(), best.getDepth(), nodes);
+        });
+    }
+
+    private KalahSearch search(KalahGameRecord game) {
+        var search = searches.get();
+        if (!search.getVariant().equals(game.getVariant())) {
+            search = new KalahSearch(game.getVariant(), table());
+            searches.set(search);
+        }
+        return search;
+    }
+
+    private TranspositionTable table() {
+        var table = this.table;
+        if (table == null) {
+            synchronized (this) {
+                table = this.table;
+                if (table == null) {
+                    table = new TranspositionTable(tableBits);
+                    this.table = table;
+                }
+            }
+        }
+        return table;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,31 @@
+package com.waes.palazares.kalah.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Result of the game tree search
+ */
+@AllArgsConstructor
+@Getter
+public class SearchResult {
+    /**
+     * Best pit id to play, -1 when there is no legal move
+     */
+    private int pitId;
+
+    /**
+     * Score of the best move for the player to move, difference of the stores
+     */
+    private int score;
+
+    /**
+     * Depth of the last completed iteration
+     */
+    private int depth;
+
+    /**
+     * Number of visited nodes
+     */
+    private long nodes;
+}
@@ -0,0 +1,42 @@
+package com.waes.palazares.kalah.ai;
+
+/**
+ * Fixed size transposition table of packed {@code long} entries.
+ * Every slot keeps the entry and the key xor-ed with the entry in two adjacent array elements.
+ * Racing writers may leave a slot with halves of different entries, such a slot does not pass
+ * the key check and is read as empty, so the table can be shared by search threads without locks
+ */
+public final class TranspositionTable {
+    private final long[] slots;
+    private final int mask;
+
+    /**
+     * @param bits number of entries as a power of two
+     */
+    public TranspositionTable(int bits) {
+        slots = new long[2 << bits];
+        mask = (1 << bits) - 1;
+    }
+
+    /**
+     * @param key position key
+     * @return stored entry or 0 when there is no entry for the key
+     */
+    public long get(long key) {
+        var slot = ((int) key & mask) << 1;
+        var entry = slots[slot + 1];
+        return (slots[slot] ^ entry) == key ? entry : 0;
+    }
+
+    /**
+     * Stores the entry, always replacing the previous one
+     *
+     * @param key   position key
+     * @param entry non zero entry
+     */
+    public void put(long key, long entry) {
+        var slot = ((int) key & mask) << 1;
+        slots[slot] = key ^ entry;
+        slots[slot + 1] = entry;
+    }
+}
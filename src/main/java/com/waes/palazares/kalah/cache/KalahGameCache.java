@@ -0,0 +1,229 @@
+package com.waes.palazares.kalah.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded write-through cache of live games sitting in front of {@link KalahGameRepository}.
+ * Games are evicted when the cache is full or when they were not accessed for the configured time.
+ * Repository calls are timed, cache statistics and the number of active (cached) games are exposed as metrics.
+ * Saved games get the expiration time of finished or idle games, the storage removes them once it has passed
+ */
+@Component
+@Slf4j
+public class KalahGameCache {
+    private final KalahGameRepository repository;
+    private final KalahGameMetrics metrics;
+    private final Cache<UUID, KalahGameRecord> cache;
+    private final Duration finishedTtl;
+    private final Duration idleTtl;
+
+    @Autowired
+    public KalahGameCache(KalahGameRepository repository, KalahGameMetrics metrics,
+                          @Value("${kalah.cache.max-size:100000}") long maxSize,
+                          @Value("${kalah.cache.expire-after-access-seconds:600}") long expireAfterAccessSeconds,
+                          @Value("${kalah.game.finished-ttl-seconds:86400}") long finishedTtlSeconds,
+                          @Value("${kalah.game.idle-ttl-seconds:604800}") long idleTtlSeconds) {
+        this.repository = repository;
+        this.metrics = metrics;
+        this.finishedTtl = Duration.ofSeconds(finishedTtlSeconds);
+        this.idleTtl = Duration.ofSeconds(idleTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccessSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(metrics.getRegistry(), cache, "kalah.games");
+        Gauge.builder("kalah.games.active", cache, Cache::estimatedSize)
+                .description("Games accessed within the cache expiration time")
+                .register(metrics.getRegistry());
+    }
+
+    /**
+     * Finds a game in the cache or loads it from the repository
+     *
+     * @param id game id
+     * @return game record or empty if the game does not exist
+     */
+    public Mono<KalahGameRecord> findById(UUID id) {
+        return findById(id, Mono::just);
+    }
+
+    /**
+     * Finds a game in the cache or loads it from the repository.
+     * A loaded game is completed before it is cached, for example with the moves appended after it was stored
+     *
+     * @param id         game id
+     * @param completion completion of the loaded game
+     * @return game record or empty if the game does not exist
+     */
+    public Mono<KalahGameRecord> findById(UUID id, Function<KalahGameRecord, Mono<KalahGameRecord>> completion) {
+        return Mono.defer(() -> {
+            var cached = cache.getIfPresent(id);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            log.debug("Game {} is not cached, loading from repository", id);
+            return metrics.time(KalahGameMetrics.REPOSITORY_LOAD, repository.findById(id))
+                    .flatMap(completion)
+                    .doOnNext(x -> cache.put(id, x));
+        });
+    }
+
+    /**
+     * Saves a game to the repository and caches the persisted record
+     *
+     * @param record game record to save
+     * @return persisted game record
+     */
+    public Mono<KalahGameRecord> save(KalahGameRecord record) {
+        return metrics.time(KalahGameMetrics.REPOSITORY_SAVE, repository.save(record.withExpiration(finishedTtl, idleTtl)))
+                .doOnNext(x -> cache.put(x.getId(), x));
+    }
+
+    /**
+     * Checks whether the expiration time of the stored game falls behind the last move by more than the tolerance,
+     * for example when its moves are appended to the move log without saving the game
+     *
+     * @param record    game record
+     * @param tolerance time the stored expiration may fall behind
+     * @return true if the game should be saved to refresh the expiration time
+     */
+    public boolean isExpirationBehind(KalahGameRecord record, Duration tolerance) {
+        var stored = record.getExpireAt();
+        return stored == null || expiration(record).isAfter(stored.plus(tolerance));
+    }
+
+    /**
+     * @param record game record
+     * @return time the game expires at when it is saved now
+     */
+    public Instant expiration(KalahGameRecord record) {
+        return record.withExpiration(finishedTtl, idleTtl).getExpireAt();
+    }
+
+    /**
+     * @param record game record
+     * @return game record with the time it expires at when it is saved now
+     */
+    public KalahGameRecord expiring(KalahGameRecord record) {
+        return record.withExpiration(finishedTtl, idleTtl);
+    }
+
+    /**
+     * Caches a game which has been persisted without saving the record, for example by appending its moves
+     *
+     * @param record game record
+     * @return the same game record
+     */
+    public KalahGameRecord put(KalahGameRecord record) {
+        cache.put(record.getId(), record);
+        return record;
+    }
+
+    /**
+     * Saves games to the repository in one batch.
+     * Saved games are not cached, so bulk provisioned games do not evict the live ones
+     *
+     * @param records game records to save
+     * @return persisted game records
+     */
+    public Flux<KalahGameRecord> saveAll(List<KalahGameRecord> records) {
+        var expiring = new ArrayList<KalahGameRecord>(records.size());
+        for (var record : records) {
+            expiring.add(record.withExpiration(finishedTtl, idleTtl));
+        }
+        return metrics.time(KalahGameMetrics.REPOSITORY_SAVE_ALL, repository.saveAll(expiring));
+    }
+
+    /**
+     * Replaces stored games in one batch and caches the replaced records.
+     * Games which have been stored with another version or removed are not replaced
+     *
+     * @param records stored game records with the versions they were loaded with
+     * @return replaced game records, in no particular order
+     */
+    public Flux<KalahGameRecord> replaceAll(List<KalahGameRecord> records) {
+        var expiring = new ArrayList<KalahGameRecord>(records.size());
+        for (var record : records) {
+            expiring.add(record.withExpiration(finishedTtl, idleTtl));
+        }
+        return metrics.time(KalahGameMetrics.REPOSITORY_SAVE_ALL, repository.replaceAll(expiring))
+                .doOnNext(x -> cache.put(x.getId(), x));
+    }
+
+    /**
+     * Lists stored games in the id order starting after a game, with the state index when the state is given.
+     * Stored games are replaced by the cached ones, which may have been moved since they were stored
+     *
+     * @param state state of the games, all games when null
+     * @param after id of the last game of the previous page
+     * @param size  maximum number of games
+     * @return games in the id order
+     */
+    public Flux<KalahGameRecord> findAll(GameState state, UUID after, int size) {
+        var page = PageRequest.of(0, size);
+        var stored = state == null ? repository.findByIdGreaterThanOrderByIdAsc(after, page) :
+                repository.findByStateAndIdGreaterThanOrderByIdAsc(state, after, page);
+        return metrics.time(KalahGameMetrics.REPOSITORY_LIST, stored)
+                .map(x -> {
+                    var cached = cache.getIfPresent(x.getId());
+                    return cached != null ? cached : x;
+                });
+    }
+
+    /**
+     * Checks whether the record is the cached one, without counting it as an access
+     *
+     * @param record game record
+     * @return true if the same record is cached
+     */
+    public boolean isCached(KalahGameRecord record) {
+        return cache.asMap().get(record.getId()) == record;
+    }
+
+    /**
+     * Removes a game from the cache, next read goes to the repository
+     *
+     * @param id game id
+     */
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * @return hit, miss and eviction counters
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return approximate number of cached games
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,28 @@
+package com.waes.palazares.kalah.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Fast startup of the prod profile: beans are created when they are first used instead of on startup.
+ * The first requests pay for the creation of the beans they use, for example the recovery of the journal
+ */
+@Configuration
+@Profile("prod")
+public class LazyInitializationConfig {
+    /**
+     * Marks all bean definitions lazy, the web server is started by the context either way
+     *
+     * @return bean factory post processor
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyInitialization() {
+        return beanFactory -> {
+            for (var name : beanFactory.getBeanDefinitionNames()) {
+                beanFactory.getBeanDefinition(name).setLazyInit(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.waes.palazares.kalah.config;
+
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahGameSnapshot;
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.UuidCodec;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+@Configuration
+@Profile("!memory & !journal")
+@Slf4j
+public class MongoConfig {
+    /**
+     * Stores game ids in the Java legacy byte order by default, which the existing collections are written with.
+     * Set {@code kalah.mongo.uuid-representation=STANDARD} for a new database, so ids sort and compare the same way
+     * in every driver and in the shell. The stored ids are not converted, a collection must be read with
+     * the representation it was written with
+     *
+     * @param representation UUID binary representation
+     * @return customizer of the reactive client codecs
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer uuidCodecCustomizer(
+            @Value("${kalah.mongo.uuid-representation:JAVA_LEGACY}") UuidRepresentation representation) {
+        return builder -> builder.codecRegistry(CodecRegistries.fromRegistries(
+                CodecRegistries.fromCodecs(new UuidCodec(representation)),
+                MongoClients.getDefaultCodecRegistry()));
+    }
+
+    /**
+     * Sets the expiration time of the games, moves and snapshots stored before they had one, so the TTL indexes
+     * remove them once they are idle for {@code kalah.game.idle-ttl-seconds} from the start.
+     * Documents with an expiration time are not changed, so running it on every start is cheap
+     *
+     * @param mongo          reactive Mongo operations
+     * @param idleTtlSeconds time to keep a game without moves
+     * @return runner updating the documents in the background
+     */
+    @Bean
+    public ApplicationRunner expirationBackfill(ReactiveMongoOperations mongo,
+                                                @Value("${kalah.game.idle-ttl-seconds:604800}") long idleTtlSeconds) {
+        return args -> {
+            var withoutExpiration = Query.query(Criteria.where("expireAt").exists(false));
+            var expiration = Update.update("expireAt", Instant.now().plusSeconds(idleTtlSeconds));
+            Flux.<Class<?>>just(KalahGameRecord.class, KalahMoveEvent.class, KalahGameSnapshot.class)
+                    .concatMap(type -> mongo.updateMulti(withoutExpiration, expiration, type)
+                            .filter(x -> x.getModifiedCount() > 0)
+                            .doOnNext(x -> log.info("Expiration time has been set for {} stored {} documents",
+                                    x.getModifiedCount(), type.getSimpleName())))
+                    .subscribe(x -> {
+                    }, e -> log.warn("Expiration time of the stored documents could not be set: {}", e.getMessage()));
+        };
+    }
+}
@@ -3,6 +3,9 @@ package com.waes.palazares.kalah.config;
 import io.swagger.annotations.Api;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
@@ -10,7 +13,17 @@ import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2WebFlux;
 
+import java.net.URI;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * API documentation, not served with the prod profile so the controllers are not scanned on startup.
+ * Only the WebFlux controllers are documented, so it is not served with the blocking profile either
+ */
 @Configuration
+@Profile("!prod & !blocking")
 @EnableSwagger2WebFlux
 public class SwaggerConfig {
     /**
@@ -27,6 +40,18 @@ public class SwaggerConfig {
                 .apiInfo(apiInfo());
     }
 
+    /**
+     * Redirects the root to the Swagger UI
+     *
+     * @return root route
+     */
+    @Bean
+    RouterFunction<ServerResponse> routerFunction() {
+        return route(GET("/"), req ->
+                ServerResponse.temporaryRedirect(URI.create("swagger-ui.html"))
+                        .build());
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("Kalah game REST API")
@@ -0,0 +1,292 @@
+package com.waes.palazares.kalah.controller;
+
+import com.waes.palazares.kalah.domain.KalahBestMoveState;
+import com.waes.palazares.kalah.domain.KalahEvaluationState;
+import com.waes.palazares.kalah.domain.KalahGameCompactState;
+import com.waes.palazares.kalah.domain.KalahGamePageState;
+import com.waes.palazares.kalah.domain.KalahGameState;
+import com.waes.palazares.kalah.domain.KalahMovesState;
+import com.waes.palazares.kalah.service.BlockingKalahGameService;
+import io.swagger.annotations.Api;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Kalah game endpoints controller of the blocking profile.
+ * Serves the endpoints with Spring MVC, every request is handled by a thread of the bounded Tomcat pool.
+ * Game reads, creation and single moves call {@link BlockingKalahGameService}, which reads and writes the storage
+ * on the request thread. The other endpoints are served by {@link KalahGameHandler}, the request thread waits
+ * for the reactive result. Streaming responses are written by Spring MVC from the reactive streams
+ */
+@Api("Kalah game endpoints. Create a game and start making turns")
+@RestController
+@Profile("blocking")
+@RequestMapping("/")
+public class BlockingKalahGameController {
+    private BlockingKalahGameService service;
+    private KalahGameHandler handler;
+
+    @Autowired
+    public BlockingKalahGameController(BlockingKalahGameService service, KalahGameHandler handler) {
+        this.service = service;
+        this.handler = handler;
+    }
+
+    /**
+     * Endpoint to read a game.
+     * Response has a strong ETag of the representation, 304 is returned without a body when it matches
+     * If-None-Match header
+     *
+     * @param gameId id of the game
+     * @return Kalah game state
+     */
+    @GetMapping("/games/{gameId}")
+    public KalahGameState getGame(@PathVariable String gameId, ServletWebRequest webRequest) throws Exception {
+        var request = request(webRequest);
+        var game = service.get(gameId);
+        if (KalahGameHandler.checkNotModified(request, game, MediaType.APPLICATION_JSON_VALUE)) {
+            return null;
+        }
+        return KalahGameHandler.toState(game, KalahGameHandler.gamesUrl(request));
+    }
+
+    /**
+     * Endpoint to read a game returning the compact game state
+     *
+     * @param gameId id of the game
+     * @return Compact Kalah game state
+     */
+    @GetMapping(value = "/games/{gameId}", produces = KalahGameCompactState.MEDIA_TYPE)
+    public KalahGameCompactState getGameCompact(@PathVariable String gameId, ServletWebRequest webRequest)
+            throws Exception {
+        var request = request(webRequest);
+        var game = service.get(gameId);
+        if (KalahGameHandler.checkNotModified(request, game, KalahGameCompactState.MEDIA_TYPE)) {
+            return null;
+        }
+        return KalahGameHandler.toCompactState(game, KalahGameHandler.gamesUrl(request));
+    }
+
+    /**
+     * Endpoint to list games page by page. The next page link starts after the last game of the page
+     *
+     * @param state state of the games, optional
+     * @param after id of the last game of the previous page, optional
+     * @param size  maximum number of games, optional
+     * @return Kalah game states and the next page link, null for the last page
+     */
+    @GetMapping("/games")
+    public KalahGamePageState listGames(@RequestParam(required = false) String state,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(required = false) Integer size,
+                                        ServletWebRequest webRequest) throws Exception {
+        return block(handler.listGames(state, after, size, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to make a turn
+     *
+     * @param gameId id of the game
+     * @param pitId  pit number for a turn
+     * @return Kalah game state after a turn
+     */
+    @PutMapping("/games/{gameId}/pits/{pitId}")
+    public KalahGameState makeTurn(@PathVariable String gameId, @PathVariable String pitId, ServletWebRequest webRequest)
+            throws Exception {
+        return KalahGameHandler.toState(service.move(gameId, pitId), request(webRequest).getUri());
+    }
+
+    /**
+     * Endpoint to make a turn returning the compact game state
+     *
+     * @param gameId id of the game
+     * @param pitId  pit number for a turn
+     * @return Compact Kalah game state after a turn
+     */
+    @PutMapping(value = "/games/{gameId}/pits/{pitId}", produces = KalahGameCompactState.MEDIA_TYPE)
+    public KalahGameCompactState makeTurnCompact(@PathVariable String gameId, @PathVariable String pitId, ServletWebRequest webRequest)
+            throws Exception {
+        return KalahGameHandler.toCompactState(service.move(gameId, pitId), request(webRequest).getUri());
+    }
+
+    /**
+     * Endpoint to make a sequence of turns with a single request.
+     * Turns are applied in order until the first one which can not be applied
+     *
+     * @param gameId id of the game
+     * @param pitIds pit numbers of the turns in order
+     * @return Kalah game state after the applied turns and the index of the failed turn
+     */
+    @PutMapping("/games/{gameId}/pits")
+    public KalahMovesState makeTurns(@PathVariable String gameId, @RequestBody List<Integer> pitIds, ServletWebRequest webRequest)
+            throws Exception {
+        return block(handler.makeTurns(gameId, pitIds, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to make a turn of the computer player.
+     * The turn is searched within the depth and time budget, both capped by the server limits
+     *
+     * @param gameId     id of the game
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return Kalah game state after a turn
+     */
+    @PostMapping("/games/{gameId}/ai-move")
+    public KalahGameState makeAiTurn(@PathVariable String gameId,
+                                     @RequestParam(required = false) Integer depth,
+                                     @RequestParam(required = false) Integer timeMillis,
+                                     ServletWebRequest webRequest) throws Exception {
+        return block(handler.makeAiTurn(gameId, depth, timeMillis, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to analyse a game. Finds the best turn of the player to move without making it
+     *
+     * @param gameId     id of the game
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return best turn with its expected score
+     */
+    @GetMapping("/games/{gameId}/best-move")
+    public KalahBestMoveState getBestMove(@PathVariable String gameId,
+                                          @RequestParam(required = false) Integer depth,
+                                          @RequestParam(required = false) Integer timeMillis,
+                                          ServletWebRequest webRequest) throws Exception {
+        return block(handler.getBestMove(gameId, depth, timeMillis, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to evaluate a game position.
+     * The score is exact for finished games and positions of the endgame table, otherwise it is a search estimate
+     *
+     * @param gameId id of the game
+     * @return expected final difference of the south and the north stores
+     */
+    @GetMapping("/games/{gameId}/evaluation")
+    public KalahEvaluationState getEvaluation(@PathVariable String gameId, ServletWebRequest webRequest)
+            throws Exception {
+        return block(handler.getEvaluation(gameId, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to replay a game from the move log
+     *
+     * @param gameId    id of the game
+     * @param moveCount number of moves from the start of the game, optional
+     * @return Kalah game state after the moves
+     */
+    @GetMapping("/games/{gameId}/replay")
+    public KalahGameState replayGame(@PathVariable String gameId,
+                                     @RequestParam(required = false) Long moveCount,
+                                     ServletWebRequest webRequest) throws Exception {
+        return block(handler.replayGame(gameId, moveCount, request(webRequest)));
+    }
+
+    /**
+     * Endpoint to create a Kalah game. The default 6x6 board is used unless a variant is requested
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
+     * @return New Kalah game state
+     */
+    @PostMapping("/games")
+    @ResponseStatus(HttpStatus.CREATED)
+    public KalahGameState createGame(@RequestParam(required = false) Integer houses,
+                                     @RequestParam(required = false) Integer seeds,
+                                     @RequestParam(required = false) Boolean emptyCapture,
+                                     ServletWebRequest webRequest) throws Exception {
+        var game = service.create(houses, seeds, emptyCapture);
+        return KalahGameHandler.toState(game, KalahGameHandler.gamesUrl(request(webRequest)));
+    }
+
+    /**
+     * Endpoint to create a Kalah game returning the compact game state
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
+     * @return New compact Kalah game state
+     */
+    @PostMapping(value = "/games", produces = KalahGameCompactState.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public KalahGameCompactState createGameCompact(@RequestParam(required = false) Integer houses,
+                                                   @RequestParam(required = false) Integer seeds,
+                                                   @RequestParam(required = false) Boolean emptyCapture,
+                                                   ServletWebRequest webRequest) throws Exception {
+        var game = service.create(houses, seeds, emptyCapture);
+        return KalahGameHandler.toCompactState(game, KalahGameHandler.gamesUrl(request(webRequest)));
+    }
+
+    /**
+     * Endpoint to create a number of Kalah games with a single request.
+     * Games are streamed back as newline delimited JSON
+     *
+     * @param count number of games to create
+     * @return New Kalah game states
+     */
+    @PostMapping(value = "/games/bulk", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<KalahGameState> createGames(@RequestParam int count, ServletWebRequest webRequest) {
+        return handler.createGames(count, request(webRequest));
+    }
+
+    /**
+     * Endpoint to watch a game. Every change of the game is sent as a server-sent event
+     *
+     * @param gameId id of the game
+     * @return Kalah game states after every change
+     */
+    @GetMapping(value = "/games/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<KalahGameState> watchGame(@PathVariable String gameId, ServletWebRequest webRequest) {
+        return handler.watchGame(gameId, request(webRequest));
+    }
+
+    /**
+     * Waits for the result on the calling thread, an empty result is a response completed without a body.
+     * Errors are thrown as the exceptions of the reactive operations
+     */
+    private static <T> T block(Mono<T> mono) throws Exception {
+        try {
+            return mono.block();
+        } catch (RuntimeException e) {
+            // checked exceptions are wrapped by block
+            var cause = Exceptions.unwrap(e);
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static KalahGameHandler.Request request(ServletWebRequest webRequest) {
+        return new KalahGameHandler.Request() {
+            @Override
+            public URI getUri() {
+                return ServletUriComponentsBuilder.fromRequest(webRequest.getRequest()).build().toUri();
+            }
+
+            @Override
+            public void setHeader(String name, String value) {
+                webRequest.getResponse().setHeader(name, value);
+            }
+
+            @Override
+            public boolean checkNotModified(String etag) {
+                return webRequest.checkNotModified(etag);
+            }
+        };
+    }
+}
@@ -1,33 +1,82 @@
 package com.waes.palazares.kalah.controller;
 
-import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahBestMoveState;
+import com.waes.palazares.kalah.domain.KalahEvaluationState;
+import com.waes.palazares.kalah.domain.KalahGameCompactState;
+import com.waes.palazares.kalah.domain.KalahGamePageState;
 import com.waes.palazares.kalah.domain.KalahGameState;
-import com.waes.palazares.kalah.service.KalahGameService;
+import com.waes.palazares.kalah.domain.KalahMovesState;
 import io.swagger.annotations.Api;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.IntStream;
+import java.util.List;
 
 /**
  * Kalah game endpoints controller
- * Provides post endpoint to start a game and put endpoint to make turns
+ * Provides post endpoints to start games and make computer turns, put endpoints to make turns,
+ * conditional get endpoint to read a game, paginated listing of games, best move and position analysis,
+ * replay of the move log and server-sent events of game changes.
+ * Single game responses are also available in the compact form, see {@link KalahGameCompactState}.
+ * The endpoints are implemented by {@link KalahGameHandler}, which also serves them with the blocking profile
  */
 @Api("Kalah game endpoints. Create a game and start making turns")
 @RestController
+@Profile("!blocking")
 @RequestMapping("/")
 public class KalahGameController {
-    private KalahGameService service;
+    private KalahGameHandler handler;
 
     @Autowired
-    public KalahGameController(KalahGameService service) {
-        this.service = service;
+    public KalahGameController(KalahGameHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Endpoint to read a game.
+     * Response has a strong ETag of the representation, 304 is returned without a body when it matches
+     * If-None-Match header
+     *
+     * @param gameId id of the game
+     * @return Kalah game state
+     */
+    @GetMapping("/games/{gameId}")
+    public Mono<KalahGameState> getGame(@PathVariable String gameId, ServerWebExchange exchange) {
+        return handler.getGame(gameId, request(exchange));
+    }
+
+    /**
+     * Endpoint to read a game returning the compact game state
+     *
+     * @param gameId id of the game
+     * @return Compact Kalah game state
+     */
+    @GetMapping(value = "/games/{gameId}", produces = KalahGameCompactState.MEDIA_TYPE)
+    public Mono<KalahGameCompactState> getGameCompact(@PathVariable String gameId, ServerWebExchange exchange) {
+        return handler.getGameCompact(gameId, request(exchange));
+    }
+
+    /**
+     * Endpoint to list games page by page. The next page link starts after the last game of the page
+     *
+     * @param state state of the games, optional
+     * @param after id of the last game of the previous page, optional
+     * @param size  maximum number of games, optional
+     * @return Kalah game states and the next page link, null for the last page
+     */
+    @GetMapping("/games")
+    public Mono<KalahGamePageState> listGames(@RequestParam(required = false) String state,
+                                              @RequestParam(required = false) String after,
+                                              @RequestParam(required = false) Integer size,
+                                              ServerWebExchange exchange) {
+        return handler.listGames(state, after, size, request(exchange));
     }
 
     /**
@@ -38,26 +87,168 @@ public class KalahGameController {
      * @return Kalah game state after a turn
      */
     @PutMapping("/games/{gameId}/pits/{pitId}")
-    public Mono<KalahGameState> makeTurn(@PathVariable String gameId, @PathVariable String pitId, ServerHttpRequest request) {
-        return service.move(gameId, pitId).map(x -> toState(x, request.getURI()));
+    public Mono<KalahGameState> makeTurn(@PathVariable String gameId, @PathVariable String pitId, ServerWebExchange exchange) {
+        return handler.makeTurn(gameId, pitId, request(exchange));
+    }
+
+    /**
+     * Endpoint to make a turn returning the compact game state
+     *
+     * @param gameId id of the game
+     * @param pitId  pit number for a turn
+     * @return Compact Kalah game state after a turn
+     */
+    @PutMapping(value = "/games/{gameId}/pits/{pitId}", produces = KalahGameCompactState.MEDIA_TYPE)
+    public Mono<KalahGameCompactState> makeTurnCompact(@PathVariable String gameId, @PathVariable String pitId, ServerWebExchange exchange) {
+        return handler.makeTurnCompact(gameId, pitId, request(exchange));
+    }
+
+    /**
+     * Endpoint to make a sequence of turns with a single request.
+     * Turns are applied in order until the first one which can not be applied
+     *
+     * @param gameId id of the game
+     * @param pitIds pit numbers of the turns in order
+     * @return Kalah game state after the applied turns and the index of the failed turn
+     */
+    @PutMapping("/games/{gameId}/pits")
+    public Mono<KalahMovesState> makeTurns(@PathVariable String gameId, @RequestBody List<Integer> pitIds, ServerWebExchange exchange) {
+        return handler.makeTurns(gameId, pitIds, request(exchange));
+    }
+
+    /**
+     * Endpoint to make a turn of the computer player.
+     * The turn is searched within the depth and time budget, both capped by the server limits
+     *
+     * @param gameId     id of the game
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return Kalah game state after a turn
+     */
+    @PostMapping("/games/{gameId}/ai-move")
+    public Mono<KalahGameState> makeAiTurn(@PathVariable String gameId,
+                                           @RequestParam(required = false) Integer depth,
+                                           @RequestParam(required = false) Integer timeMillis,
+                                           ServerWebExchange exchange) {
+        return handler.makeAiTurn(gameId, depth, timeMillis, request(exchange));
     }
 
     /**
-     * Endpoint to create a Kalah game
+     * Endpoint to analyse a game. Finds the best turn of the player to move without making it
      *
+     * @param gameId     id of the game
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return best turn with its expected score
+     */
+    @GetMapping("/games/{gameId}/best-move")
+    public Mono<KalahBestMoveState> getBestMove(@PathVariable String gameId,
+                                                @RequestParam(required = false) Integer depth,
+                                                @RequestParam(required = false) Integer timeMillis,
+                                                ServerWebExchange exchange) {
+        return handler.getBestMove(gameId, depth, timeMillis, request(exchange));
+    }
+
+    /**
+     * Endpoint to evaluate a game position.
+     * The score is exact for finished games and positions of the endgame table, otherwise it is a search estimate
+     *
+     * @param gameId id of the game
+     * @return expected final difference of the south and the north stores
+     */
+    @GetMapping("/games/{gameId}/evaluation")
+    public Mono<KalahEvaluationState> getEvaluation(@PathVariable String gameId, ServerWebExchange exchange) {
+        return handler.getEvaluation(gameId, request(exchange));
+    }
+
+    /**
+     * Endpoint to replay a game from the move log
+     *
+     * @param gameId    id of the game
+     * @param moveCount number of moves from the start of the game, optional
+     * @return Kalah game state after the moves
+     */
+    @GetMapping("/games/{gameId}/replay")
+    public Mono<KalahGameState> replayGame(@PathVariable String gameId,
+                                           @RequestParam(required = false) Long moveCount,
+                                           ServerWebExchange exchange) {
+        return handler.replayGame(gameId, moveCount, request(exchange));
+    }
+
+    /**
+     * Endpoint to create a Kalah game. The default 6x6 board is used unless a variant is requested
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
      * @return New Kalah game state
      */
     @PostMapping("/games")
     @ResponseStatus(HttpStatus.CREATED)
-    public Mono<KalahGameState> createGame(ServerHttpRequest request) {
-        return service.create().map(x -> toState(x, request.getURI()));
+    public Mono<KalahGameState> createGame(@RequestParam(required = false) Integer houses,
+                                           @RequestParam(required = false) Integer seeds,
+                                           @RequestParam(required = false) Boolean emptyCapture,
+                                           ServerWebExchange exchange) {
+        return handler.createGame(houses, seeds, emptyCapture, request(exchange));
+    }
+
+    /**
+     * Endpoint to create a Kalah game returning the compact game state
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
+     * @return New compact Kalah game state
+     */
+    @PostMapping(value = "/games", produces = KalahGameCompactState.MEDIA_TYPE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<KalahGameCompactState> createGameCompact(@RequestParam(required = false) Integer houses,
+                                                         @RequestParam(required = false) Integer seeds,
+                                                         @RequestParam(required = false) Boolean emptyCapture,
+                                                         ServerWebExchange exchange) {
+        return handler.createGameCompact(houses, seeds, emptyCapture, request(exchange));
+    }
+
+    /**
+     * Endpoint to create a number of Kalah games with a single request.
+     * Games are streamed back as newline delimited JSON
+     *
+     * @param count number of games to create
+     * @return New Kalah game states
+     */
+    @PostMapping(value = "/games/bulk", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<KalahGameState> createGames(@RequestParam int count, ServerWebExchange exchange) {
+        return handler.createGames(count, request(exchange));
     }
 
-    private static KalahGameState toState(KalahGameRecord gameRecord, URI baseUrl) {
-        var id = gameRecord.getId().toString();
-        var url = baseUrl.toString() + "/" + id;
-        var status = IntStream.range(0, 14)
-                .collect(HashMap<Integer, Integer>::new, (m, i) -> m.put(i + 1, gameRecord.getStatus()[i]), Map::putAll);
-        return new KalahGameState(id, url, status);
+    /**
+     * Endpoint to watch a game. Every change of the game is sent as a server-sent event
+     *
+     * @param gameId id of the game
+     * @return Kalah game states after every change
+     */
+    @GetMapping(value = "/games/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<KalahGameState> watchGame(@PathVariable String gameId, ServerWebExchange exchange) {
+        return handler.watchGame(gameId, request(exchange));
+    }
+
+    private static KalahGameHandler.Request request(ServerWebExchange exchange) {
+        return new KalahGameHandler.Request() {
+            @Override
+            public URI getUri() {
+                return exchange.getRequest().getURI();
+            }
+
+            @Override
+            public void setHeader(String name, String value) {
+                exchange.getResponse().getHeaders().set(name, value);
+            }
+
+            @Override
+            public boolean checkNotModified(String etag) {
+                return exchange.checkNotModified(etag);
+            }
+        };
     }
 }
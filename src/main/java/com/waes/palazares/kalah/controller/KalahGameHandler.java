@@ -0,0 +1,202 @@
+package com.waes.palazares.kalah.controller;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.domain.KalahBestMoveResult;
+import com.waes.palazares.kalah.domain.KalahBestMoveState;
+import com.waes.palazares.kalah.domain.KalahEvaluationResult;
+import com.waes.palazares.kalah.domain.KalahEvaluationState;
+import com.waes.palazares.kalah.domain.KalahGameCompactState;
+import com.waes.palazares.kalah.domain.KalahGamePageState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahGameState;
+import com.waes.palazares.kalah.domain.KalahMovesResult;
+import com.waes.palazares.kalah.domain.KalahMovesState;
+import com.waes.palazares.kalah.domain.PitStatus;
+import com.waes.palazares.kalah.service.KalahGameService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kalah game endpoints independent of the web stack.
+ * {@link KalahGameController} serves them with WebFlux and {@link BlockingKalahGameController} with Spring MVC,
+ * both only map the requests and adapt them to {@link Request}, so an endpoint is implemented once.
+ * The blocking controller serves the game reads, creation and single moves with its own service
+ * and builds the responses with the same mappings
+ */
+@Component
+public class KalahGameHandler {
+    private KalahGameService service;
+
+    @Autowired
+    public KalahGameHandler(KalahGameService service) {
+        this.service = service;
+    }
+
+    /**
+     * Request of the web stack serving the endpoint
+     */
+    interface Request {
+        /**
+         * @return URL of the request
+         */
+        URI getUri();
+
+        /**
+         * Sets a header of the response
+         *
+         * @param name  header name
+         * @param value header value
+         */
+        void setHeader(String name, String value);
+
+        /**
+         * Checks the ETag against the If-None-Match header, the response is completed with 304 when it matches
+         *
+         * @param etag ETag of the response
+         * @return true if the response is not modified
+         */
+        boolean checkNotModified(String etag);
+    }
+
+    Mono<KalahGameState> getGame(String gameId, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.get(gameId)
+                .filter(x -> !checkNotModified(request, x, MediaType.APPLICATION_JSON_VALUE))
+                .map(x -> toState(x, baseUrl));
+    }
+
+    Mono<KalahGameCompactState> getGameCompact(String gameId, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.get(gameId)
+                .filter(x -> !checkNotModified(request, x, KalahGameCompactState.MEDIA_TYPE))
+                .map(x -> toCompactState(x, baseUrl));
+    }
+
+    Mono<KalahGamePageState> listGames(String state, String after, Integer size, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.list(state, after, size).map(page -> {
+            var games = new ArrayList<KalahGameState>(page.getGames().size());
+            page.getGames().forEach(x -> games.add(toState(x, baseUrl)));
+            var next = page.getNext() == null ? null : UriComponentsBuilder.fromUri(request.getUri())
+                    .replaceQueryParam("after", page.getNext())
+                    .build().toUriString();
+            return new KalahGamePageState(games, next);
+        });
+    }
+
+    Mono<KalahGameState> makeTurn(String gameId, String pitId, Request request) {
+        return service.move(gameId, pitId).map(x -> toState(x, request.getUri()));
+    }
+
+    Mono<KalahGameCompactState> makeTurnCompact(String gameId, String pitId, Request request) {
+        return service.move(gameId, pitId).map(x -> toCompactState(x, request.getUri()));
+    }
+
+    Mono<KalahMovesState> makeTurns(String gameId, List<Integer> pitIds, Request request) {
+        return service.moves(gameId, pitIds).map(x -> toMovesState(x, request.getUri()));
+    }
+
+    Mono<KalahGameState> makeAiTurn(String gameId, Integer depth, Integer timeMillis, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.aiMove(gameId, depth, timeMillis).map(x -> toState(x, baseUrl));
+    }
+
+    Mono<KalahBestMoveState> getBestMove(String gameId, Integer depth, Integer timeMillis, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.bestMove(gameId, depth, timeMillis).map(x -> toBestMoveState(x, baseUrl));
+    }
+
+    Mono<KalahEvaluationState> getEvaluation(String gameId, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.evaluate(gameId).map(x -> toEvaluationState(x, baseUrl));
+    }
+
+    Mono<KalahGameState> replayGame(String gameId, Long moveCount, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.replay(gameId, moveCount).map(x -> toState(x, baseUrl));
+    }
+
+    Mono<KalahGameState> createGame(Integer houses, Integer seeds, Boolean emptyCapture, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.create(houses, seeds, emptyCapture).map(x -> toState(x, baseUrl));
+    }
+
+    Mono<KalahGameCompactState> createGameCompact(Integer houses, Integer seeds, Boolean emptyCapture, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.create(houses, seeds, emptyCapture).map(x -> toCompactState(x, baseUrl));
+    }
+
+    Flux<KalahGameState> createGames(int count, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.createAll(count).map(x -> toState(x, baseUrl));
+    }
+
+    Flux<KalahGameState> watchGame(String gameId, Request request) {
+        var baseUrl = gamesUrl(request);
+        return service.events(gameId).map(x -> toState(x, baseUrl));
+    }
+
+    /**
+     * Representations of a game are served from the same URL, so the ETag includes the media type
+     * and caches are told that the response depends on the Accept header
+     */
+    static boolean checkNotModified(Request request, KalahGameRecord gameRecord, String mediaType) {
+        request.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return request.checkNotModified(etag(gameRecord, mediaType));
+    }
+
+    static String etag(KalahGameRecord gameRecord, String mediaType) {
+        var version = gameRecord.getVersion() == null ? 0 : gameRecord.getVersion();
+        return "\"" + version + "-" + Long.toHexString(KalahGame.hash(gameRecord)) + ";" + mediaType + "\"";
+    }
+
+    static URI gamesUrl(Request request) {
+        return UriComponentsBuilder.fromUri(request.getUri()).replacePath("/games").replaceQuery(null).build().toUri();
+    }
+
+    static KalahGameState toState(KalahGameRecord gameRecord, URI baseUrl) {
+        var id = gameRecord.getId().toString();
+        var url = baseUrl.toString() + "/" + id;
+        return new KalahGameState(id, url, new PitStatus(gameRecord.getStatus()));
+    }
+
+    static KalahGameCompactState toCompactState(KalahGameRecord gameRecord, URI baseUrl) {
+        var id = gameRecord.getId().toString();
+        var url = baseUrl.toString() + "/" + id;
+        return new KalahGameCompactState(id, url, gameRecord.getStatus());
+    }
+
+    static KalahBestMoveState toBestMoveState(KalahBestMoveResult result, URI baseUrl) {
+        var id = result.getGame().getId().toString();
+        var url = baseUrl.toString() + "/" + id;
+        var pitId = result.getPitId() > 0 ? result.getPitId() : null;
+        return new KalahBestMoveState(id, url, pitId, result.getScore(), result.getDepth());
+    }
+
+    static KalahEvaluationState toEvaluationState(KalahEvaluationResult result, URI baseUrl) {
+        var id = result.getGame().getId().toString();
+        var url = baseUrl.toString() + "/" + id;
+        return new KalahEvaluationState(id, url, result.getScore(), result.isExact());
+    }
+
+    static KalahMovesState toMovesState(KalahMovesResult result, URI baseUrl) {
+        var state = toState(result.getGame(), baseUrl);
+        if (result.getFailure() == null) {
+            return new KalahMovesState(state, null, null);
+        }
+        var status = AnnotatedElementUtils.findMergedAnnotation(result.getFailure().getClass(), ResponseStatus.class);
+        var reason = status != null ? status.reason() : result.getFailure().getMessage();
+        return new KalahMovesState(state, result.getFailedMoveIndex(), reason);
+    }
+}
@@ -0,0 +1,98 @@
+package com.waes.palazares.kalah.controller;
+
+import com.waes.palazares.kalah.simulation.SimulationJob;
+import com.waes.palazares.kalah.simulation.SimulationService;
+import com.waes.palazares.kalah.simulation.SimulationSettings;
+import com.waes.palazares.kalah.simulation.SimulationState;
+import com.waes.palazares.kalah.simulation.SimulationStats;
+import io.swagger.annotations.Api;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Self-play simulation endpoints controller.
+ * Simulations run asynchronously, their statistics can be read or streamed while the games are played.
+ * Simulations are not served with the blocking profile
+ */
+@Api("Self-play simulations. Start a simulation and watch its statistics")
+@RestController
+@Profile("!blocking")
+@RequestMapping("/")
+public class SimulationController {
+    private static final Duration STATS_INTERVAL = Duration.ofSeconds(1);
+
+    private SimulationService service;
+
+    @Autowired
+    public SimulationController(SimulationService service) {
+        this.service = service;
+    }
+
+    /**
+     * Endpoint to start a simulation
+     *
+     * @param settings simulation settings
+     * @return started simulation
+     */
+    @PostMapping("/simulations")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<SimulationState> startSimulation(@RequestBody SimulationSettings settings, ServerHttpRequest request) {
+        var baseUrl = simulationsUrl(request);
+        return service.start(settings).map(x -> toState(x, baseUrl));
+    }
+
+    /**
+     * Endpoint to read a simulation
+     *
+     * @param simulationId id of the simulation
+     * @return simulation with the statistics of the games played so far
+     */
+    @GetMapping("/simulations/{simulationId}")
+    public Mono<SimulationState> getSimulation(@PathVariable String simulationId, ServerHttpRequest request) {
+        var baseUrl = simulationsUrl(request);
+        return service.get(simulationId).map(x -> toState(x, baseUrl));
+    }
+
+    /**
+     * Endpoint to watch a simulation. Statistics are sent every second as server-sent events until it is done
+     *
+     * @param simulationId id of the simulation
+     * @return statistics of the games played so far
+     */
+    @GetMapping(value = "/simulations/{simulationId}/stats", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<SimulationStats> watchSimulation(@PathVariable String simulationId) {
+        return service.stats(simulationId, STATS_INTERVAL);
+    }
+
+    /**
+     * Endpoint to cancel a simulation
+     *
+     * @param simulationId id of the simulation
+     * @return cancelled simulation
+     */
+    @DeleteMapping("/simulations/{simulationId}")
+    public Mono<SimulationState> cancelSimulation(@PathVariable String simulationId, ServerHttpRequest request) {
+        var baseUrl = simulationsUrl(request);
+        return service.cancel(simulationId).map(x -> toState(x, baseUrl));
+    }
+
+    private static URI simulationsUrl(ServerHttpRequest request) {
+        return UriComponentsBuilder.fromUri(request.getURI()).replacePath("/simulations").replaceQuery(null).build().toUri();
+    }
+
+    private static SimulationState toState(SimulationJob job, URI baseUrl) {
+        var id = job.getId().toString();
+        var run = job.getRun();
+        return new SimulationState(id, baseUrl.toString() + "/" + id, run.isDone(), run.getSettings(), run.stats());
+    }
+}
@@ -0,0 +1,38 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Result of the best move analysis of a game
+ */
+@AllArgsConstructor
+@Getter
+public class KalahBestMoveResult {
+    /**
+     * Analysed game
+     */
+    @NonNull
+    private KalahGameRecord game;
+
+    /**
+     * Best pit id to play, -1 when there is no legal move
+     */
+    private int pitId;
+
+    /**
+     * Expected difference of the stores for the player to move
+     */
+    private int score;
+
+    /**
+     * Depth of the search in plies
+     */
+    private int depth;
+
+    /**
+     * Number of positions visited by all search threads
+     */
+    private long nodes;
+}
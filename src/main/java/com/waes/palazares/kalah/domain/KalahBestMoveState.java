@@ -0,0 +1,24 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Best move analysis representation of Kalah game
+ */
+@AllArgsConstructor
+@Getter
+public class KalahBestMoveState {
+    @NonNull
+    private String id;
+
+    @NonNull
+    private String url;
+
+    private Integer pitId;
+
+    private int score;
+
+    private int depth;
+}
@@ -0,0 +1,28 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Evaluation of a game position
+ */
+@AllArgsConstructor
+@Getter
+public class KalahEvaluationResult {
+    /**
+     * Evaluated game
+     */
+    @NonNull
+    private KalahGameRecord game;
+
+    /**
+     * Expected final difference of the south and the north stores
+     */
+    private int score;
+
+    /**
+     * True when the score is the exact game value, false when it is a search estimate
+     */
+    private boolean exact;
+}
@@ -0,0 +1,22 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Position evaluation representation of Kalah game
+ */
+@AllArgsConstructor
+@Getter
+public class KalahEvaluationState {
+    @NonNull
+    private String id;
+
+    @NonNull
+    private String url;
+
+    private int score;
+
+    private boolean exact;
+}
@@ -0,0 +1,24 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Compact Kalah game state representation.
+ * Status is a fixed order array of the pits, pit id 1 first
+ */
+@AllArgsConstructor
+@Getter
+public class KalahGameCompactState {
+    public static final String MEDIA_TYPE = "application/vnd.kalah.compact+json";
+
+    @NonNull
+    private String id;
+
+    @NonNull
+    private String url;
+
+    @NonNull
+    private int[] status;
+}
@@ -0,0 +1,26 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Page of listed games
+ */
+@AllArgsConstructor
+@Getter
+public class KalahGamePageResult {
+    /**
+     * Games of the page in the id order
+     */
+    @NonNull
+    private List<KalahGameRecord> games;
+
+    /**
+     * Id after which the next page starts, null when this page is the last one
+     */
+    private UUID next;
+}
@@ -0,0 +1,19 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Page of Kalah game states with the link to the next page
+ */
+@AllArgsConstructor
+@Getter
+public class KalahGamePageState {
+    @NonNull
+    private List<KalahGameState> games;
+
+    private String next;
+}
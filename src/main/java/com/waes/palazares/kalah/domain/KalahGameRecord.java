@@ -2,26 +2,202 @@ package com.waes.palazares.kalah.domain;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.UUID;
 
 /**
- * Entity object used to store game details
+ * Entity object used to store game details.
+ * The board variant is stored with every game, games stored without it are played on the default board.
+ * The version is maintained by the storage and is used to detect concurrent updates.
+ * A record made by a move keeps the record it was made from and the pit of the move until it is stored,
+ * so the moves of an update can be appended to the move log, see {@link KalahMoveEvent}.
+ * Games are listed by state in the id order and removed by the storage once the expiration time has passed,
+ * timestamps are not compared by equals.
+ * The legal moves are computed once per record as a bitmask of pit ids, the status must not be changed afterwards
  */
 @Getter
 @EqualsAndHashCode
 @NoArgsConstructor
-@AllArgsConstructor
 @Document(collection = "kalahgame")
+@CompoundIndex(name = "state_id", def = "{'state': 1, '_id': 1}")
 public class KalahGameRecord {
     @Id
     @NonNull
     private UUID id = UUID.randomUUID();
 
     @NonNull
-    private int[] status = {6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+    private int[] status = KalahVariant.DEFAULT.initialStatus();
 
     @NonNull
     private GameState state = GameState.SOUTH_TURN;
+
+    @NonNull
+    private KalahVariant variant = KalahVariant.DEFAULT;
+
+    /**
+     * Number of moves played, which is also the sequence number of the last move
+     */
+    private long moveCount;
+
+    @Version
+    private Long version;
+
+    @Indexed
+    @EqualsAndHashCode.Exclude
+    private Instant createdAt = Instant.now();
+
+    /**
+     * Time of the last move, null until the first move
+     */
+    @EqualsAndHashCode.Exclude
+    private Instant lastMoveAt;
+
+    /**
+     * Time after which the storage removes the game, set when the game is saved
+     */
+    @Indexed(expireAfterSeconds = 0)
+    @EqualsAndHashCode.Exclude
+    private Instant expireAt;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private KalahGameRecord previous;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    private int lastPit;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private int legalMoves = -1;
+
+    public KalahGameRecord(@NonNull UUID id, @NonNull int[] status, @NonNull GameState state) {
+        this(id, status, state, KalahVariant.DEFAULT, 0, null);
+    }
+
+    public KalahGameRecord(@NonNull UUID id, @NonNull int[] status, @NonNull GameState state, Long version) {
+        this(id, status, state, KalahVariant.DEFAULT, 0, version);
+    }
+
+    public KalahGameRecord(@NonNull UUID id, @NonNull int[] status, @NonNull GameState state, @NonNull KalahVariant variant,
+                           long moveCount, Long version) {
+        this.id = id;
+        this.status = status;
+        this.state = state;
+        this.variant = variant;
+        this.moveCount = moveCount;
+        this.version = version;
+    }
+
+    /**
+     * Restores a stored record with its timestamps
+     */
+    public KalahGameRecord(@NonNull UUID id, @NonNull int[] status, @NonNull GameState state, @NonNull KalahVariant variant,
+                           long moveCount, Long version, @NonNull Instant createdAt, Instant lastMoveAt, Instant expireAt) {
+        this(id, status, state, variant, moveCount, version);
+        this.createdAt = createdAt;
+        this.lastMoveAt = lastMoveAt;
+        this.expireAt = expireAt;
+    }
+
+    private KalahGameRecord(KalahGameRecord game, int[] status, GameState state, long moveCount, Long version,
+                            Instant lastMoveAt, Instant expireAt) {
+        this(game.id, status, state, game.variant, moveCount, version, game.createdAt, lastMoveAt, expireAt);
+    }
+
+    /**
+     * Creates a new game at the start position of the variant
+     *
+     * @param variant board variant
+     */
+    public KalahGameRecord(@NonNull KalahVariant variant) {
+        this(UUID.randomUUID(), variant.initialStatus(), GameState.SOUTH_TURN, variant, 0, null);
+    }
+
+    /**
+     * Copies the record with the board after the move keeping the id and version.
+     * The new record refers to this one until the history is dropped
+     *
+     * @param pitId  pit id of the move
+     * @param status new pits status
+     * @param state  new game state
+     * @return new game record
+     */
+    public KalahGameRecord withMove(int pitId, @NonNull int[] status, @NonNull GameState state) {
+        var moved = new KalahGameRecord(this, status, state, moveCount + 1, version, Instant.now(), expireAt);
+        moved.previous = this;
+        moved.lastPit = pitId;
+        return moved;
+    }
+
+    /**
+     * Copies the record with another version keeping the board
+     *
+     * @param version new version
+     * @return new game record without history
+     */
+    public KalahGameRecord withVersion(Long version) {
+        return new KalahGameRecord(this, status, state, moveCount, version, lastMoveAt, expireAt);
+    }
+
+    /**
+     * Copies the record with the expiration time counted from the last move, or from the creation without moves
+     *
+     * @param finishedTtl time to keep a finished game
+     * @param idleTtl     time to keep a game without moves before it is considered abandoned
+     * @return new game record without history
+     */
+    public KalahGameRecord withExpiration(@NonNull Duration finishedTtl, @NonNull Duration idleTtl) {
+        var lastActive = lastMoveAt != null ? lastMoveAt : createdAt;
+        var expiration = lastActive.plus(state == GameState.FINISHED ? finishedTtl : idleTtl);
+        return new KalahGameRecord(this, status, state, moveCount, version, lastMoveAt, expiration);
+    }
+
+    /**
+     * Bitmask of the legal moves, bit {@code pitId} is set for every non-empty house of the player to move
+     *
+     * @return legal moves, 0 when the game has finished
+     */
+    public int getLegalMoves() {
+        var moves = legalMoves;
+        if (moves < 0) {
+            moves = 0;
+            if (state != GameState.FINISHED) {
+                var houses = variant.getHouses();
+                var first = state == GameState.SOUTH_TURN ? 0 : houses + 1;
+                for (int i = first; i < first + houses; i++) {
+                    if (status[i] > 0) {
+                        moves |= 1 << (i + 1);
+                    }
+                }
+            }
+            legalMoves = moves;
+        }
+        return moves;
+    }
+
+    /**
+     * @param pitId pit id of the move
+     * @return true if the player to move can play the pit
+     */
+    public boolean isLegalMove(int pitId) {
+        return pitId > 0 && pitId < Integer.SIZE && (getLegalMoves() & 1 << pitId) != 0;
+    }
+
+    /**
+     * Drops the records of the previous moves, records are stored and cached without history
+     *
+     * @return this record if it has no history, otherwise a copy without history
+     */
+    public KalahGameRecord withoutHistory() {
+        return previous == null ? this : withVersion(version);
+    }
 }
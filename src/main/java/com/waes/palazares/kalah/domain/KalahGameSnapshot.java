@@ -0,0 +1,64 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity object of the periodic game snapshots, a game is replayed from the nearest snapshot before the requested move.
+ * The id is made of the game id and the number of moves, so saving a snapshot again does not duplicate it.
+ * Snapshots are removed by the storage once the expiration time of the game at the time of the snapshot has passed
+ */
+@Getter
+@NoArgsConstructor
+@Document(collection = "kalahsnapshot")
+@CompoundIndex(name = "game_move_count", def = "{'gameId': 1, 'moveCount': 1}")
+public class KalahGameSnapshot {
+    @Id
+    private String id;
+
+    @NonNull
+    private UUID gameId;
+
+    private long moveCount;
+
+    @NonNull
+    private int[] status;
+
+    @NonNull
+    private GameState state;
+
+    /**
+     * Time after which the storage removes the snapshot, null when it does not expire
+     */
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expireAt;
+
+    public KalahGameSnapshot(@NonNull KalahGameRecord game) {
+        this(game, null);
+    }
+
+    public KalahGameSnapshot(@NonNull KalahGameRecord game, Instant expireAt) {
+        this.id = game.getId() + ":" + game.getMoveCount();
+        this.gameId = game.getId();
+        this.moveCount = game.getMoveCount();
+        this.status = game.getStatus();
+        this.state = game.getState();
+        this.expireAt = expireAt;
+    }
+
+    /**
+     * @param game game of the snapshot
+     * @return game record at the snapshot
+     */
+    public KalahGameRecord toRecord(KalahGameRecord game) {
+        return new KalahGameRecord(gameId, status, state, game.getVariant(), moveCount, null);
+    }
+}
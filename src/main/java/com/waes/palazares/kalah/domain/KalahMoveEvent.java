@@ -0,0 +1,54 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity object of the append-only move log.
+ * Sequence numbers of a game are unique, so two concurrent moves made from the same position can not both be appended.
+ * The hash of the resulting game is used to check the replayed moves.
+ * Events are removed by the storage once the expiration time of the game at the time of the move has passed
+ */
+@Getter
+@NoArgsConstructor
+@Document(collection = "kalahmove")
+@CompoundIndex(name = "game_seq", def = "{'gameId': 1, 'seq': 1}", unique = true)
+public class KalahMoveEvent {
+    @Id
+    private String id;
+
+    @NonNull
+    private UUID gameId;
+
+    private long seq;
+
+    private int pitId;
+
+    private long hash;
+
+    /**
+     * Time after which the storage removes the event, null when it does not expire
+     */
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expireAt;
+
+    public KalahMoveEvent(@NonNull UUID gameId, long seq, int pitId, long hash) {
+        this(gameId, seq, pitId, hash, null);
+    }
+
+    public KalahMoveEvent(@NonNull UUID gameId, long seq, int pitId, long hash, Instant expireAt) {
+        this.gameId = gameId;
+        this.seq = seq;
+        this.pitId = pitId;
+        this.hash = hash;
+        this.expireAt = expireAt;
+    }
+}
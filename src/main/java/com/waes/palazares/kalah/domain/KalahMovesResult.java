@@ -0,0 +1,28 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Result of a sequence of moves applied to a game
+ */
+@AllArgsConstructor
+@Getter
+public class KalahMovesResult {
+    /**
+     * Game after all the applied moves
+     */
+    @NonNull
+    private KalahGameRecord game;
+
+    /**
+     * Index of the first move that could not be applied, -1 when all the moves were applied
+     */
+    private int failedMoveIndex;
+
+    /**
+     * Reason of the failed move, null when all the moves were applied
+     */
+    private Exception failure;
+}
@@ -0,0 +1,19 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Kalah game state representation after a sequence of moves
+ */
+@AllArgsConstructor
+@Getter
+public class KalahMovesState {
+    @NonNull
+    private KalahGameState game;
+
+    private Integer failedMoveIndex;
+
+    private String failure;
+}
@@ -0,0 +1,106 @@
+package com.waes.palazares.kalah.domain;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.annotation.PersistenceConstructor;
+
+/**
+ * Board variant of the game: number of houses per side, number of seeds per house at the start
+ * and whether the last seed landing in an empty own house captures when the opposite house is empty as well.
+ * The south houses come first, then the south store, the north houses and the north store.
+ * Instances are immutable and shared by all games of the variant, boards derive their layout from it once
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class KalahVariant {
+    public static final int MAX_HOUSES = 12;
+    public static final int MAX_SEEDS = 12;
+    public static final int MAX_PITS = MAX_HOUSES * 2 + 2;
+    public static final KalahVariant DEFAULT = new KalahVariant(6, 6, true);
+
+    private final int houses;
+    private final int seeds;
+    private final boolean emptyCapture;
+
+    @PersistenceConstructor
+    private KalahVariant(int houses, int seeds, boolean emptyCapture) {
+        this.houses = houses;
+        this.seeds = seeds;
+        this.emptyCapture = emptyCapture;
+    }
+
+    /**
+     * @param houses number of houses per side
+     * @param seeds  number of seeds per house at the start
+     * @return variant with the empty capture rule, the default instance for the 6x6 board
+     * @throws IllegalArgumentException when the numbers are out of range
+     */
+    public static KalahVariant of(int houses, int seeds) {
+        return of(houses, seeds, true);
+    }
+
+    /**
+     * @param houses       number of houses per side
+     * @param seeds        number of seeds per house at the start
+     * @param emptyCapture whether the last seed captures when the opposite house is empty
+     * @return variant, the default instance for the default rules
+     * @throws IllegalArgumentException when the numbers are out of range
+     */
+    public static KalahVariant of(int houses, int seeds, boolean emptyCapture) {
+        if (!isValid(houses, seeds)) {
+            throw new IllegalArgumentException("Invalid board variant: " + houses + "x" + seeds);
+        }
+        if (houses == DEFAULT.houses && seeds == DEFAULT.seeds && emptyCapture == DEFAULT.emptyCapture) {
+            return DEFAULT;
+        }
+        return new KalahVariant(houses, seeds, emptyCapture);
+    }
+
+    /**
+     * @param houses number of houses per side
+     * @param seeds  number of seeds per house at the start
+     * @return true if the variant can be played
+     */
+    public static boolean isValid(int houses, int seeds) {
+        return houses >= 1 && houses <= MAX_HOUSES && seeds >= 1 && seeds <= MAX_SEEDS;
+    }
+
+    /**
+     * @return number of pits including both stores
+     */
+    public int getPits() {
+        return houses * 2 + 2;
+    }
+
+    public int getSouthStore() {
+        return houses;
+    }
+
+    public int getNorthStore() {
+        return houses * 2 + 1;
+    }
+
+    /**
+     * Checks whether the pit id is a house of the board
+     *
+     * @param pitId pit id (from 1)
+     * @return true if the pit is a house of either player
+     */
+    public boolean isHouse(int pitId) {
+        return pitId >= 1 && pitId <= houses * 2 + 1 && pitId != houses + 1;
+    }
+
+    /**
+     * @return pits at the start of the game
+     */
+    public int[] initialStatus() {
+        var status = new int[getPits()];
+        for (int i = 0; i < houses; i++) {
+            status[i] = seeds;
+            status[houses + 1 + i] = seeds;
+        }
+        return status;
+    }
+}
@@ -0,0 +1,101 @@
+package com.waes.palazares.kalah.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only map view of the game pits keyed by pit id (from 1).
+ * Serialized straight from the pits array, so no boxed map entries are built for a response
+ */
+@JsonSerialize(using = PitStatus.Serializer.class)
+public final class PitStatus extends AbstractMap<Integer, Integer> {
+    // keys of the pits of the largest board
+    private static final String[] KEYS = new String[KalahVariant.MAX_PITS];
+
+    static {
+        for (int i = 0; i < KEYS.length; i++) {
+            KEYS[i] = Integer.toString(i + 1);
+        }
+    }
+
+    private final int[] pits;
+
+    public PitStatus(int[] pits) {
+        this.pits = pits;
+    }
+
+    @Override
+    public int size() {
+        return pits.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && (Integer) key >= 1 && (Integer) key <= pits.length;
+    }
+
+    @Override
+    public Integer get(Object key) {
+        return containsKey(key) ? pits[(Integer) key - 1] : null;
+    }
+
+    @Override
+    public Set<Entry<Integer, Integer>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, Integer>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < pits.length;
+                    }
+
+                    @Override
+                    public Entry<Integer, Integer> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        var entry = new SimpleImmutableEntry<>(index + 1, pits[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return pits.length;
+            }
+        };
+    }
+
+    /**
+     * Writes pits as {"1":6,"2":6,...} directly from the array
+     */
+    public static class Serializer extends StdSerializer<PitStatus> {
+        public Serializer() {
+            super(PitStatus.class);
+        }
+
+        @Override
+        public void serialize(PitStatus value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < value.pits.length; i++) {
+                gen.writeFieldName(i < KEYS.length ? KEYS[i] : Integer.toString(i + 1));
+                gen.writeNumber(value.pits[i]);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.waes.palazares.kalah.endgame;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+
+/**
+ * Perfect index of the positions with a fixed total number of seeds and at most {@code maxSeeds} seeds in the houses.
+ * Positions are grouped by the number of seeds in the houses; within a group the 12 houses are ranked
+ * in lexicographic order of the combinatorial number system, then the south store and the player to move follow.
+ * The north store is implied by the total
+ */
+public final class EndgameIndex {
+    private static final int HOUSES = 12;
+
+    private final int total;
+    private final int maxSeeds;
+    private final long[][] binomials;
+    private final long[] offsets;
+
+    /**
+     * @param total    total number of seeds of the game
+     * @param maxSeeds maximum number of seeds in the houses
+     */
+    public EndgameIndex(int total, int maxSeeds) {
+        if (maxSeeds > total) {
+            throw new IllegalArgumentException("Number of seeds in the houses exceeds the total");
+        }
+        this.total = total;
+        this.maxSeeds = maxSeeds;
+        binomials = new long[maxSeeds + HOUSES + 1][HOUSES + 1];
+        for (int n = 0; n < binomials.length; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, HOUSES); k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + (k <= n - 1 ? binomials[n - 1][k] : 0);
+            }
+        }
+        offsets = new long[maxSeeds + 2];
+        for (int seeds = 0; seeds <= maxSeeds; seeds++) {
+            offsets[seeds + 1] = offsets[seeds] + compositions(HOUSES, seeds) * (total - seeds + 1) * 2;
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getMaxSeeds() {
+        return maxSeeds;
+    }
+
+    /**
+     * @return number of indexed positions
+     */
+    public long size() {
+        return offsets[maxSeeds + 1];
+    }
+
+    /**
+     * @param board board with the player to move
+     * @return index of the position, -1 when the position is not indexed
+     */
+    public long indexOf(KalahBoard board) {
+        var state = board.getState();
+        var seeds = board.getSouthHouses() + board.getNorthHouses();
+        if (state == GameState.FINISHED || seeds > maxSeeds ||
+                seeds + board.get(KalahBoard.SOUTH_STORE) + board.get(KalahBoard.NORTH_STORE) != total) {
+            return -1;
+        }
+
+        var rank = 0L;
+        var remaining = seeds;
+        for (int i = 0; i < HOUSES - 1; i++) {
+            var seedsInHouse = board.get(house(i));
+            var left = HOUSES - 1 - i;
+            // number of houses vectors with fewer seeds in this house and the same prefix
+            rank += binomials[remaining + left][left] - binomials[remaining - seedsInHouse + left][left];
+            remaining -= seedsInHouse;
+        }
+
+        var position = rank * (total - seeds + 1) + board.get(KalahBoard.SOUTH_STORE);
+        return offsets[seeds] + position * 2 + (state == GameState.NORTH_TURN ? 1 : 0);
+    }
+
+    /**
+     * Restores the position of the index
+     *
+     * @param index  index of the position
+     * @param status 14 pits to fill
+     * @return player to move
+     */
+    public GameState decode(long index, int[] status) {
+        var seeds = 0;
+        while (offsets[seeds + 1] <= index) {
+            seeds++;
+        }
+        var position = index - offsets[seeds];
+        var state = (position & 1) == 0 ? GameState.SOUTH_TURN : GameState.NORTH_TURN;
+        position >>= 1;
+        var southStore = (int) (position % (total - seeds + 1));
+        var rank = position / (total - seeds + 1);
+
+        var remaining = seeds;
+        for (int i = 0; i < HOUSES - 1; i++) {
+            var left = HOUSES - 1 - i;
+            var seedsInHouse = 0;
+            while (rank >= compositions(left, remaining - seedsInHouse)) {
+                rank -= compositions(left, remaining - seedsInHouse);
+                seedsInHouse++;
+            }
+            status[house(i)] = seedsInHouse;
+            remaining -= seedsInHouse;
+        }
+        status[house(HOUSES - 1)] = remaining;
+        status[KalahBoard.SOUTH_STORE] = southStore;
+        status[KalahBoard.NORTH_STORE] = total - seeds - southStore;
+        return state;
+    }
+
+    // number of ways to put the seeds into the houses
+    private long compositions(int houses, int seeds) {
+        return binomials[seeds + houses - 1][houses - 1];
+    }
+
+    private static int house(int i) {
+        return i < KalahBoard.SOUTH_STORE ? i : i + 1;
+    }
+}
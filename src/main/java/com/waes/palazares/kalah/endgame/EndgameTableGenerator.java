@@ -0,0 +1,156 @@
+package com.waes.palazares.kalah.endgame;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Offline generator of the endgame table.
+ * Every move either moves seeds to a store or sows them further on the side of the player,
+ * so the game graph has no cycles and every position is solved once by a memoized depth-first search.
+ * Values are the final difference of the stores for the player to move.
+ * Run with {@code gradle generateEndgameTable -PendgameSeeds=8 -PendgamePath=...}
+ */
+@Slf4j
+public final class EndgameTableGenerator {
+    private static final byte UNKNOWN = Byte.MIN_VALUE;
+
+    private final EndgameIndex index;
+    private final byte[] values;
+    private final int[] status = new int[KalahBoard.PITS];
+    private KalahBoard[] boards = new KalahBoard[0];
+
+    public EndgameTableGenerator(EndgameIndex index) {
+        if (index.size() > Integer.MAX_VALUE - KalahEndgameTable.HEADER_SIZE) {
+            throw new IllegalArgumentException("Endgame table is too large: " + index.size());
+        }
+        this.index = index;
+        this.values = new byte[(int) index.size()];
+    }
+
+    /**
+     * Solves all the indexed positions
+     *
+     * @return values of the positions by index
+     */
+    public byte[] generate() {
+        Arrays.fill(values, UNKNOWN);
+        for (long i = 0; i < values.length; i++) {
+            if (values[(int) i] == UNKNOWN) {
+                var state = index.decode(i, status);
+                board(0).load(status, state);
+                solve(0);
+            }
+        }
+        return values;
+    }
+
+    private int solve(int ply) {
+        var board = board(ply);
+        var position = (int) index.indexOf(board);
+        if (values[position] != UNKNOWN) {
+            return values[position];
+        }
+
+        var side = board.getState();
+        var best = Integer.MIN_VALUE;
+        if (!board.isFinished()) {
+            var first = side == GameState.SOUTH_TURN ? 1 : KalahBoard.SOUTH_STORE + 2;
+            for (int pit = first; pit < first + KalahBoard.SOUTH_STORE; pit++) {
+                if (!board.isLegal(pit)) {
+                    continue;
+                }
+                var next = board(ply + 1).copyFrom(board);
+                next.move(pit);
+                int value;
+                if (next.getState() == GameState.FINISHED) {
+                    value = score(next, side);
+                } else if (next.getState() == side) {
+                    value = solve(ply + 1);
+                } else {
+                    value = -solve(ply + 1);
+                }
+                best = Math.max(best, value);
+            }
+        }
+        if (best == Integer.MIN_VALUE) {
+            // finished or north has seeds in the store only
+            best = score(board, side);
+        }
+
+        values[position] = (byte) best;
+        return best;
+    }
+
+    private KalahBoard board(int ply) {
+        if (ply >= boards.length) {
+            var grown = Arrays.copyOf(boards, Math.max(16, boards.length * 2));
+            for (int i = boards.length; i < grown.length; i++) {
+                grown[i] = new KalahBoard();
+            }
+            boards = grown;
+        }
+        return boards[ply];
+    }
+
+    private static int score(KalahBoard board, GameState side) {
+        var difference = board.get(KalahBoard.SOUTH_STORE) - board.get(KalahBoard.NORTH_STORE);
+        return side == GameState.NORTH_TURN ? -difference : difference;
+    }
+
+    /**
+     * Writes the table with its header
+     *
+     * @param path   file to write
+     * @param index  index of the table
+     * @param values values of the positions by index
+     * @throws IOException when the file can not be written
+     */
+    public static void write(Path path, EndgameIndex index, byte[] values) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(KalahEndgameTable.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(KalahEndgameTable.MAGIC)
+                    .putInt(index.getTotal())
+                    .putInt(index.getMaxSeeds())
+                    .putInt(values.length)
+                    .flip();
+            channel.write(header);
+            var body = ByteBuffer.wrap(values);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * @param args maximum number of seeds in the houses and the output file
+     * @throws IOException when the file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        var maxSeeds = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        var path = Paths.get(args.length > 1 ? args[1] : "kalah-endgame.bin");
+        var total = Arrays.stream(new KalahGameRecord().getStatus()).sum();
+
+        var index = new EndgameIndex(total, maxSeeds);
+        log.info("Generating endgame table of {} positions with up to {} seeds", index.size(), maxSeeds);
+        var started = System.nanoTime();
+        var values = new EndgameTableGenerator(index).generate();
+        write(path, index, values);
+        log.info("Endgame table has been written to {} in {} ms", path, (System.nanoTime() - started) / 1_000_000);
+    }
+}
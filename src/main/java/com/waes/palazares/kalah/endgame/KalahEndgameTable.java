@@ -0,0 +1,83 @@
+package com.waes.palazares.kalah.endgame;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only endgame table of exact game values, memory-mapped from the file generated by {@link EndgameTableGenerator}.
+ * The table is disabled when {@code kalah.endgame.path} is not set or the file does not exist
+ */
+@Component
+@Slf4j
+public class KalahEndgameTable {
+    public static final int MAGIC = 0x4b454754;
+    public static final int HEADER_SIZE = 16;
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final ThreadLocal<KalahBoard> BOARD = ThreadLocal.withInitial(KalahBoard::new);
+
+    private final EndgameIndex index;
+    private final ByteBuffer values;
+
+    public KalahEndgameTable(@Value("${kalah.endgame.path:}") String path) {
+        if (path.isEmpty() || !Files.isReadable(Paths.get(path))) {
+            log.info("Endgame table is disabled, file: '{}'", path);
+            index = null;
+            values = null;
+            return;
+        }
+        try {
+            var mapped = map(Paths.get(path));
+            var magic = mapped.getInt(0);
+            if (magic != MAGIC) {
+                throw new IllegalStateException("Not an endgame table: " + path);
+            }
+            index = new EndgameIndex(mapped.getInt(4), mapped.getInt(8));
+            if (mapped.getInt(12) != index.size() || mapped.capacity() != HEADER_SIZE + index.size()) {
+                throw new IllegalStateException("Endgame table is truncated: " + path);
+            }
+            values = mapped;
+            log.info("Endgame table with up to {} seeds has been mapped from {}", index.getMaxSeeds(), path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Looks up the exact value of the position
+     *
+     * @param status 14 pits of the game
+     * @param state  player to move
+     * @return final difference of the stores for the player to move, {@link #UNKNOWN} when the position is not in the table
+     */
+    public int lookup(int[] status, GameState state) {
+        if (index == null || state == GameState.FINISHED) {
+            return UNKNOWN;
+        }
+        var position = index.indexOf(BOARD.get().load(status, state));
+        return position < 0 ? UNKNOWN : values.get(HEADER_SIZE + (int) position);
+    }
+
+    public boolean isEnabled() {
+        return index != null;
+    }
+}
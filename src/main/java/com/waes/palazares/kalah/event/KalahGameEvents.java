@@ -0,0 +1,84 @@
+package com.waes.palazares.kalah.event;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process hub of game state changes.
+ * A channel exists only while a game has subscribers, so publishing to games nobody watches is a map lookup.
+ * Slow subscribers only get the latest state, idle subscribers are completed after the configured timeout
+ */
+@Component
+@Slf4j
+public class KalahGameEvents {
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final Duration idleTimeout;
+
+    @Autowired
+    public KalahGameEvents(@Value("${kalah.events.idle-timeout-seconds:300}") long idleTimeoutSeconds) {
+        this.idleTimeout = Duration.ofSeconds(idleTimeoutSeconds);
+    }
+
+    /**
+     * Publishes new game state to the game subscribers
+     *
+     * @param game changed game
+     */
+    public void publish(KalahGameRecord game) {
+        var channel = channels.get(game.getId());
+        if (channel != null) {
+            channel.sink.next(game);
+        }
+    }
+
+    /**
+     * Subscribes to the game state changes
+     *
+     * @param id game id
+     * @return stream of the game states, completes when no changes were published within the idle timeout
+     */
+    public Flux<KalahGameRecord> subscribe(UUID id) {
+        return Flux.defer(() -> {
+            var channel = channels.compute(id, (k, c) -> {
+                var result = c == null ? new Channel() : c;
+                result.subscribers++;
+                return result;
+            });
+            log.debug("New subscriber of game {}", id);
+
+            return channel.processor
+                    .onBackpressureLatest()
+                    .timeout(idleTimeout, Flux.empty())
+                    .doFinally(x -> release(id));
+        });
+    }
+
+    /**
+     * @return number of games with subscribers
+     */
+    public int size() {
+        return channels.size();
+    }
+
+    private void release(UUID id) {
+        log.debug("Subscriber of game {} has left", id);
+        channels.computeIfPresent(id, (k, c) -> --c.subscribers == 0 ? null : c);
+    }
+
+    private static final class Channel {
+        private final DirectProcessor<KalahGameRecord> processor = DirectProcessor.create();
+        private final FluxSink<KalahGameRecord> sink = processor.sink();
+        private int subscribers;
+    }
+}
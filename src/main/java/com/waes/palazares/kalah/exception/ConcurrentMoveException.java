@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the game keeps being modified by concurrent moves and the move could not be saved
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "The game was modified concurrently")
+public class ConcurrentMoveException extends Exception {
+}
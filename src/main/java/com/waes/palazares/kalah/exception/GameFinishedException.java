@@ -5,7 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Thrown when provided game id belongs to already finished game
+ * The exception has no stack trace, the shared instance is used for every rejected request
  */
 @ResponseStatus(value = HttpStatus.CONFLICT, reason = "The game has finished")
 public class GameFinishedException extends Exception {
+    public static final GameFinishedException INSTANCE = new GameFinishedException();
+
+    public GameFinishedException() {
+        super(null, null, false, false);
+    }
 }
@@ -5,7 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Thrown when provided id has wrong format (null or empty)
+ * The exception has no stack trace, the shared instance is used for every rejected request
  */
 @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid entity Id")
 public class InavlidIdException extends Exception {
+    public static final InavlidIdException INSTANCE = new InavlidIdException();
+
+    public InavlidIdException() {
+        super(null, null, false, false);
+    }
 }
@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a batch request is empty or exceeds the configured limit
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid number of items in the batch")
+public class InvalidBatchSizeException extends Exception {
+}
@@ -8,7 +8,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
  * Possible reasons are:
  * Move from the other player is expected
  * Pit is empty
+ * The exception has no stack trace, the shared instance is used for every rejected request
  */
 @ResponseStatus(value = HttpStatus.CONFLICT, reason = "PitId conflicts current game state")
 public class InvalidMoveException extends Exception {
+    public static final InvalidMoveException INSTANCE = new InvalidMoveException();
+
+    public InvalidMoveException() {
+        super(null, null, false, false);
+    }
 }
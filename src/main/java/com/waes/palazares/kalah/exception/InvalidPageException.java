@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a game listing has unknown state or page size out of the configured limit
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid page request. State should be SOUTH_TURN, NORTH_TURN or FINISHED, size in [1-100] range")
+public class InvalidPageException extends Exception {
+}
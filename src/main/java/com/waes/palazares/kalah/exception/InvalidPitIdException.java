@@ -4,8 +4,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
- * Thrown when provided pitId is outside of [1-6,8-13] range
+ * Thrown when provided pitId is not a house of the game board, [1-6,8-13] for the default board
+ * The exception has no stack trace, the shared instance is used for every rejected request
  */
-@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid pitId. Should be in [1-6,8-13] range")
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board")
 public class InvalidPitIdException extends Exception {
+    public static final InvalidPitIdException INSTANCE = new InvalidPitIdException();
+
+    public InvalidPitIdException() {
+        super(null, null, false, false);
+    }
 }
@@ -5,7 +5,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 /**
  * Thrown when game record was not found
+ * The exception has no stack trace, the shared instance is used for every rejected request
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Game record was not found")
 public class InvalidRecordException extends Exception {
+    public static final InvalidRecordException INSTANCE = new InvalidRecordException();
+
+    public InvalidRecordException() {
+        super(null, null, false, false);
+    }
 }
@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the requested move number is outside of the moves played in the game
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid move number. Should be from 0 to the number of moves played")
+public class InvalidReplayException extends Exception {
+}
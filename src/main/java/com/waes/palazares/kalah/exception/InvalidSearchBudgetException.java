@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the requested search depth or time is not positive
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid search depth or time")
+public class InvalidSearchBudgetException extends Exception {
+}
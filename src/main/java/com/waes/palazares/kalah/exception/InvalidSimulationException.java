@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when simulation settings are out of the allowed range
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid simulation settings")
+public class InvalidSimulationException extends Exception {
+}
@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the requested board variant is out of the supported range
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid board variant. Houses and seeds should be in [1-12] range")
+public class InvalidVariantException extends Exception {
+}
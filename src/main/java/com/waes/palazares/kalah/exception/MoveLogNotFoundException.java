@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the moves of a game can not be replayed, the move log is only written in the events move mode
+ */
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Move log of the game was not found")
+public class MoveLogNotFoundException extends Exception {
+}
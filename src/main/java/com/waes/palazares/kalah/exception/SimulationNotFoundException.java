@@ -0,0 +1,11 @@
+package com.waes.palazares.kalah.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when simulation was not found
+ */
+@ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Simulation was not found")
+public class SimulationNotFoundException extends Exception {
+}
@@ -0,0 +1,149 @@
+package com.waes.palazares.kalah.history;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahGameSnapshot;
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import com.waes.palazares.kalah.exception.MoveLogNotFoundException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameSnapshotRepository;
+import com.waes.palazares.kalah.repository.KalahMoveEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only move log of the games with periodic snapshots.
+ * Every move is appended as a small {@link KalahMoveEvent}, every {@code kalah.history.snapshot-interval} moves
+ * the game is also stored as a {@link KalahGameSnapshot}. Games are rebuilt by applying
+ * {@link KalahGame#makeMove} to the nearest snapshot, the hash of every replayed move is checked against the log
+ */
+@Component
+@Slf4j
+public class KalahGameHistory {
+    private final KalahMoveEventRepository moves;
+    private final KalahGameSnapshotRepository snapshots;
+    private final KalahGameMetrics metrics;
+    private final int snapshotInterval;
+
+    @Autowired
+    public KalahGameHistory(KalahMoveEventRepository moves, KalahGameSnapshotRepository snapshots, KalahGameMetrics metrics,
+                            @Value("${kalah.history.snapshot-interval:32}") int snapshotInterval) {
+        this.moves = moves;
+        this.snapshots = snapshots;
+        this.metrics = metrics;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Appends the moves the record was made by with a single insert, then saves the snapshots due.
+     * The insert fails with {@code DuplicateKeyException} when another move was appended from the same position.
+     * The moves appended after the game was saved expire no earlier than the game, so it can always be completed
+     *
+     * @param updated  game record after the moves, with history
+     * @param expireAt expiration time of the game after the moves
+     * @return game record without history, once the moves are appended
+     */
+    public Mono<KalahGameRecord> append(KalahGameRecord updated, Instant expireAt) {
+        var events = new ArrayList<KalahMoveEvent>();
+        var due = new ArrayList<KalahGameSnapshot>();
+        for (var game = updated; game.getPrevious() != null; game = game.getPrevious()) {
+            events.add(new KalahMoveEvent(game.getId(), game.getMoveCount(), game.getLastPit(), KalahGame.hash(game), expireAt));
+            if (game.getMoveCount() % snapshotInterval == 0) {
+                due.add(new KalahGameSnapshot(game, expireAt));
+            }
+        }
+        if (events.isEmpty()) {
+            return Mono.just(updated);
+        }
+        Collections.reverse(events);
+
+        var stored = updated.withoutHistory();
+        return metrics.time(KalahGameMetrics.REPOSITORY_APPEND, moves.insert(events).then())
+                .then(saveSnapshots(due))
+                .thenReturn(stored);
+    }
+
+    /**
+     * @param before game record before an update
+     * @param after  game record after the update
+     * @return true if a snapshot has been taken by the update
+     */
+    public boolean isSnapshotTaken(KalahGameRecord before, KalahGameRecord after) {
+        return before.getMoveCount() / snapshotInterval != after.getMoveCount() / snapshotInterval;
+    }
+
+    /**
+     * Applies the moves appended after the stored record
+     *
+     * @param stored game record loaded from the repository
+     * @return latest game record
+     */
+    public Mono<KalahGameRecord> restore(KalahGameRecord stored) {
+        return apply(stored, Long.MAX_VALUE);
+    }
+
+    /**
+     * Rebuilds the game after the number of moves from the nearest snapshot
+     *
+     * @param game      latest game record
+     * @param moveCount number of moves, from 0 to the number of moves of the game
+     * @return game record after the moves, {@code MoveLogNotFoundException} error when the moves were not logged
+     */
+    public Mono<KalahGameRecord> replay(KalahGameRecord game, long moveCount) {
+        if (moveCount == game.getMoveCount()) {
+            return Mono.just(game.withoutHistory());
+        }
+        var start = new KalahGameRecord(game.getId(), game.getVariant().initialStatus(), GameState.SOUTH_TURN,
+                game.getVariant(), 0, null);
+
+        return snapshots.findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(game.getId(), moveCount)
+                .map(x -> x.toRecord(game))
+                .defaultIfEmpty(start)
+                .flatMap(x -> apply(x, moveCount))
+                .filter(x -> x.getMoveCount() == moveCount)
+                .switchIfEmpty(Mono.error(new MoveLogNotFoundException()));
+    }
+
+    private Mono<KalahGameRecord> apply(KalahGameRecord from, long upTo) {
+        return moves.findMoves(from.getId(), from.getMoveCount(), upTo)
+                .collectList()
+                .flatMap(events -> events.isEmpty() ? Mono.just(from) : Mono.fromCallable(() -> apply(from, events)));
+    }
+
+    private static KalahGameRecord apply(KalahGameRecord from, List<KalahMoveEvent> events) throws Exception {
+        var game = from;
+        for (var event : events) {
+            if (event.getSeq() != game.getMoveCount() + 1) {
+                throw new IllegalStateException("Move log of game " + from.getId() + " misses move " + (game.getMoveCount() + 1));
+            }
+            game = KalahGame.makeMove(game, event.getPitId());
+            if (KalahGame.hash(game) != event.getHash()) {
+                throw new IllegalStateException("Move log of game " + from.getId() + " does not match at move " + event.getSeq());
+            }
+        }
+        log.debug("{} moves of game {} have been replayed", events.size(), from.getId());
+        return game.withoutHistory();
+    }
+
+    private Mono<Void> saveSnapshots(List<KalahGameSnapshot> due) {
+        if (due.isEmpty()) {
+            return Mono.empty();
+        }
+        // the moves are already appended, a missing snapshot only makes the replay longer
+        return snapshots.saveAll(due)
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Snapshot of game {} could not be saved: {}", due.get(0).getGameId(), e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
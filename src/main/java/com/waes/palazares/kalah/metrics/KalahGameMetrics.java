@@ -0,0 +1,115 @@
+package com.waes.palazares.kalah.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records latency of the game operations.
+ * Every timer is tagged with the outcome, which is either {@code success} or the simple name of the exception,
+ * so timer counts also work as outcome counters.
+ * Timers are registered once per name and outcome, the timed operations only look them up
+ */
+@Component
+@RequiredArgsConstructor
+public class KalahGameMetrics {
+    public static final String CREATE = "kalah.game.create";
+    public static final String CREATE_ALL = "kalah.game.create.bulk";
+    public static final String GET = "kalah.game.get";
+    public static final String MOVE = "kalah.game.move";
+    public static final String MOVES = "kalah.game.move.batch";
+    public static final String AI_MOVE = "kalah.game.move.ai";
+    public static final String BEST_MOVE = "kalah.game.best.move";
+    public static final String EVALUATION = "kalah.game.evaluation";
+    public static final String REPLAY = "kalah.game.replay";
+    public static final String LIST = "kalah.game.list";
+    public static final String REPOSITORY_LOAD = "kalah.repository.load";
+    public static final String REPOSITORY_SAVE = "kalah.repository.save";
+    public static final String REPOSITORY_SAVE_ALL = "kalah.repository.save.bulk";
+    public static final String REPOSITORY_APPEND = "kalah.repository.append";
+    public static final String REPOSITORY_LIST = "kalah.repository.list";
+    public static final String REPOSITORY_FLUSH = "kalah.repository.flush";
+    public static final String SUCCESS = "success";
+
+    @Getter
+    private final MeterRegistry registry;
+    private final Map<String, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Times the operation from subscription to its completion or error
+     *
+     * @param name  timer name
+     * @param mono  operation to time
+     * @param <T>   type of the result
+     * @return timed operation
+     */
+    public <T> Mono<T> time(String name, Mono<T> mono) {
+        return Mono.defer(() -> {
+            var sample = Timer.start(registry);
+            return mono.doOnSuccess(x -> stop(sample, name, SUCCESS))
+                    .doOnError(e -> stop(sample, name, e.getClass().getSimpleName()));
+        });
+    }
+
+    /**
+     * Times the operation from subscription to its completion or error
+     *
+     * @param name  timer name
+     * @param flux  operation to time
+     * @param <T>   type of the results
+     * @return timed operation
+     */
+    public <T> Flux<T> time(String name, Flux<T> flux) {
+        return Flux.defer(() -> {
+            var sample = Timer.start(registry);
+            return flux.doOnComplete(() -> stop(sample, name, SUCCESS))
+                    .doOnError(e -> stop(sample, name, e.getClass().getSimpleName()));
+        });
+    }
+
+    /**
+     * Times the operation running on the calling thread until it returns or throws
+     *
+     * @param name      timer name
+     * @param operation operation to time
+     * @param <T>       type of the result
+     * @return result of the operation
+     * @throws Exception exception of the operation
+     */
+    public <T> T time(String name, Callable<T> operation) throws Exception {
+        var sample = Timer.start(registry);
+        T result;
+        try {
+            result = operation.call();
+        } catch (Exception e) {
+            stop(sample, name, e.getClass().getSimpleName());
+            throw e;
+        }
+        stop(sample, name, SUCCESS);
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String name, String outcome) {
+        sample.stop(timer(name, outcome));
+    }
+
+    private Timer timer(String name, String outcome) {
+        var outcomes = timers.computeIfAbsent(name, x -> new ConcurrentHashMap<>());
+        var timer = outcomes.get(outcome);
+        if (timer == null) {
+            timer = outcomes.computeIfAbsent(outcome, x -> Timer.builder(name)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        return timer;
+    }
+}
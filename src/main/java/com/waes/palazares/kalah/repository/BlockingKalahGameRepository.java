@@ -0,0 +1,26 @@
+package com.waes.palazares.kalah.repository;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+
+import java.util.UUID;
+
+/**
+ * Synchronous access to the stored games for the blocking profile, the calling thread waits for the storage.
+ * Implemented by the repositories kept by the service process itself
+ */
+public interface BlockingKalahGameRepository {
+    /**
+     * @param id game id
+     * @return stored game record or null if the game does not exist
+     */
+    KalahGameRecord find(UUID id);
+
+    /**
+     * Stores a new game or replaces the stored game of the same version.
+     * Fails with {@code OptimisticLockingFailureException} when the game has been stored with another version
+     *
+     * @param game game record
+     * @return stored game record with the new version
+     */
+    KalahGameRecord store(KalahGameRecord game);
+}
@@ -1,12 +1,31 @@
 package com.waes.palazares.kalah.repository;
 
+import com.waes.palazares.kalah.domain.GameState;
 import com.waes.palazares.kalah.domain.KalahGameRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
 import java.util.UUID;
 
 /**
- * Repository used to store games states
+ * Repository used to store games states.
+ * Games are listed with keyset pagination: a page starts after the id of the last game of the previous page,
+ * so it is read from the index without skipping the games of the previous pages
  */
-public interface KalahGameRepository extends ReactiveCrudRepository<KalahGameRecord, UUID> {
+public interface KalahGameRepository extends ReactiveCrudRepository<KalahGameRecord, UUID>, KalahGameRepositoryCustom {
+    /**
+     * @param after id of the last game of the previous page
+     * @param page  page size, the page number should be 0
+     * @return games after the id in the id order
+     */
+    Flux<KalahGameRecord> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable page);
+
+    /**
+     * @param state state of the games
+     * @param after id of the last game of the previous page
+     * @param page  page size, the page number should be 0
+     * @return games of the state after the id in the id order
+     */
+    Flux<KalahGameRecord> findByStateAndIdGreaterThanOrderByIdAsc(GameState state, UUID after, Pageable page);
 }
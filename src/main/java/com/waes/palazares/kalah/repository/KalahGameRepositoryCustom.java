@@ -0,0 +1,20 @@
+package com.waes.palazares.kalah.repository;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Operations of {@link KalahGameRepository} which are not derived from the method names
+ */
+public interface KalahGameRepositoryCustom {
+    /**
+     * Replaces stored games in one bulk write. A game is replaced only when it is still stored with the version
+     * of the record, games which have been stored with another version or removed are left as they are
+     *
+     * @param games stored game records with the versions they were loaded with
+     * @return replaced game records with the new versions, in no particular order
+     */
+    Flux<KalahGameRecord> replaceAll(List<KalahGameRecord> games);
+}
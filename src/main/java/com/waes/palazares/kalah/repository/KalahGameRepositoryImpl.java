@@ -0,0 +1,66 @@
+package com.waes.palazares.kalah.repository;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Mongo implementation of {@link KalahGameRepositoryCustom}.
+ * Games are replaced with one unordered bulk write filtered by id and version, like the repository save does
+ * for a single game. When some of the games are not matched, the games of the batch are read back
+ * to find the replaced ones
+ */
+public class KalahGameRepositoryImpl implements KalahGameRepositoryCustom {
+    private final ReactiveMongoOperations mongo;
+
+    public KalahGameRepositoryImpl(ReactiveMongoOperations mongo) {
+        this.mongo = mongo;
+    }
+
+    @Override
+    public Flux<KalahGameRecord> replaceAll(List<KalahGameRecord> games) {
+        if (games.isEmpty()) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+            var replaced = new HashMap<UUID, KalahGameRecord>(games.size() * 2);
+            var writes = new ArrayList<WriteModel<Document>>(games.size());
+            for (var game : games) {
+                var version = game.getVersion();
+                var next = game.withVersion(version + 1);
+                var document = new Document();
+                mongo.getConverter().write(next, document);
+                writes.add(new ReplaceOneModel<>(
+                        Filters.and(Filters.eq("_id", game.getId()), Filters.eq("version", version)), document));
+                replaced.put(game.getId(), next);
+            }
+            var collection = mongo.getCollection(mongo.getCollectionName(KalahGameRecord.class));
+            return Mono.from(collection.bulkWrite(writes, new BulkWriteOptions().ordered(false)))
+                    .flatMapMany(result -> result.getMatchedCount() == replaced.size() ?
+                            Flux.fromIterable(replaced.values()) : findReplaced(replaced));
+        });
+    }
+
+    /**
+     * Finds the games stored as replaced, the other games have been stored by another instance or removed
+     */
+    private Flux<KalahGameRecord> findReplaced(Map<UUID, KalahGameRecord> replaced) {
+        return mongo.find(Query.query(Criteria.where("_id").in(replaced.keySet())), KalahGameRecord.class)
+                .filter(stored -> stored.equals(replaced.get(stored.getId())))
+                .map(stored -> replaced.get(stored.getId()));
+    }
+}
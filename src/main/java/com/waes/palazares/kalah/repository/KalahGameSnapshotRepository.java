@@ -0,0 +1,19 @@
+package com.waes.palazares.kalah.repository;
+
+import com.waes.palazares.kalah.domain.KalahGameSnapshot;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Repository of the periodic game snapshots
+ */
+public interface KalahGameSnapshotRepository extends ReactiveCrudRepository<KalahGameSnapshot, String> {
+    /**
+     * @param gameId    game id
+     * @param moveCount number of moves
+     * @return latest snapshot of the game taken at or before the number of moves
+     */
+    Mono<KalahGameSnapshot> findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(UUID gameId, long moveCount);
+}
@@ -0,0 +1,33 @@
+package com.waes.palazares.kalah.repository;
+
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * Repository of the append-only move log. Events are only inserted, never updated
+ */
+public interface KalahMoveEventRepository extends ReactiveCrudRepository<KalahMoveEvent, String> {
+    /**
+     * Inserts the events with a single call, implemented by the base repository of the storage
+     *
+     * @param events events to insert
+     * @param <S>    type of the events
+     * @return inserted events, {@code DuplicateKeyException} error when a sequence number of the game is taken
+     */
+    <S extends KalahMoveEvent> Flux<S> insert(Iterable<S> events);
+
+    /**
+     * Finds the moves of the game after a move up to another one
+     *
+     * @param gameId game id
+     * @param after  sequence number of the last known move, exclusive
+     * @param upTo   sequence number of the last move to find, inclusive
+     * @return moves in order
+     */
+    @Query(value = "{ 'gameId': ?0, 'seq': { $gt: ?1, $lte: ?2 } }", sort = "{ 'seq': 1 }")
+    Flux<KalahMoveEvent> findMoves(UUID gameId, long after, long upTo);
+}
@@ -0,0 +1,129 @@
+package com.waes.palazares.kalah.repository.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+/**
+ * Off-heap open-addressing table of the journal slots by game id, with linear probing.
+ * Updated by a single writer at a time and read without locks: the slot reference of an entry is published
+ * after its key, and keys are never moved, a removed game keeps its entry until the table is rebuilt
+ */
+final class JournalIndex {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int ENTRY_SIZE = 24;
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int REF = 16;
+    private static final long EMPTY = 0;
+    private static final long REMOVED = -1;
+
+    private final ByteBuffer table;
+    private final int mask;
+    private int used;
+    private int live;
+
+    /**
+     * @param games expected number of games, the table is kept at most half full
+     */
+    JournalIndex(int games) {
+        var capacity = Integer.highestOneBit(Math.max(1024, games) * 2 - 1) * 2;
+        table = ByteBuffer.allocateDirect(capacity * ENTRY_SIZE).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    /**
+     * @param id game id
+     * @return slot of the game or -1 when the game is not indexed
+     */
+    long get(UUID id) {
+        var msb = id.getMostSignificantBits();
+        var lsb = id.getLeastSignificantBits();
+        for (int i = hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+            var offset = i * ENTRY_SIZE;
+            var ref = (long) LONGS.getAcquire(table, offset + REF);
+            if (ref == EMPTY) {
+                return -1;
+            }
+            if ((long) LONGS.get(table, offset + MSB) == msb && (long) LONGS.get(table, offset + LSB) == lsb) {
+                return ref > 0 ? ref - 1 : -1;
+            }
+        }
+    }
+
+    /**
+     * Points the game to the slot, the caller holds the write lock
+     *
+     * @param id   game id
+     * @param slot slot of the latest record
+     */
+    void put(UUID id, long slot) {
+        var offset = find(id);
+        var ref = (long) LONGS.get(table, offset + REF);
+        if (ref == EMPTY) {
+            LONGS.set(table, offset + MSB, id.getMostSignificantBits());
+            LONGS.set(table, offset + LSB, id.getLeastSignificantBits());
+            used++;
+        }
+        if (ref <= 0) {
+            live++;
+        }
+        LONGS.setRelease(table, offset + REF, slot + 1);
+    }
+
+    /**
+     * Removes the game, the caller holds the write lock
+     *
+     * @param id game id
+     */
+    void remove(UUID id) {
+        var offset = find(id);
+        if ((long) LONGS.get(table, offset + REF) > 0) {
+            live--;
+            LONGS.setRelease(table, offset + REF, REMOVED);
+        }
+    }
+
+    /**
+     * @param consumer consumer of the slots of the indexed games
+     */
+    void forEach(LongConsumer consumer) {
+        for (int offset = 0; offset < table.capacity(); offset += ENTRY_SIZE) {
+            var ref = (long) LONGS.getAcquire(table, offset + REF);
+            if (ref > 0) {
+                consumer.accept(ref - 1);
+            }
+        }
+    }
+
+    /**
+     * @return true when the next new game would make the table more than half full
+     */
+    boolean isFull() {
+        return (used + 1) * 2 > mask + 1;
+    }
+
+    int size() {
+        return live;
+    }
+
+    private int find(UUID id) {
+        var msb = id.getMostSignificantBits();
+        var lsb = id.getLeastSignificantBits();
+        for (int i = hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+            var offset = i * ENTRY_SIZE;
+            if ((long) LONGS.get(table, offset + REF) == EMPTY ||
+                    (long) LONGS.get(table, offset + MSB) == msb && (long) LONGS.get(table, offset + LSB) == lsb) {
+                return offset;
+            }
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        var h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        return (int) (h ^ h >>> 32);
+    }
+}
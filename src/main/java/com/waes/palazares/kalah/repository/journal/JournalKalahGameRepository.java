@@ -0,0 +1,388 @@
+package com.waes.palazares.kalah.repository.journal;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import com.waes.palazares.kalah.repository.memory.LocalKalahGameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Game storage of the {@code journal} profile, a memory-mapped file of fixed-size slots.
+ * Every save appends the whole game to the next slot and points the off-heap {@link JournalIndex} to it,
+ * so a slot is never rewritten and reads take no locks. Saves are serialized by a lock and check the version
+ * like the database does. A slot is checksummed and marked as written last, on the start the latest valid slot
+ * of every game wins and slots torn by a crash are skipped. When the file is full the live games are compacted
+ * into a new file, which replaces the old one atomically. The file is forced to the disk every
+ * {@code kalah.journal.force-interval-millis}, expired games are removed every {@code kalah.journal.expire-interval-seconds}
+ */
+@Repository
+@Profile("journal")
+@Slf4j
+public class JournalKalahGameRepository extends LocalKalahGameRepository implements DisposableBean {
+    public static final int SLOT_SIZE = 128;
+    public static final int MAX_SLOTS = Integer.MAX_VALUE / SLOT_SIZE;
+
+    private static final int WRITTEN = 0x4b530001;
+    private static final int REMOVED = 0x4b530002;
+    private static final int MARKER = 0;
+    private static final int CHECKSUM = 4;
+    private static final int SEQ = 8;
+    private static final int MSB = 16;
+    private static final int LSB = 24;
+    private static final int VERSION = 32;
+    private static final int MOVE_COUNT = 40;
+    private static final int CREATED_AT = 48;
+    private static final int LAST_MOVE_AT = 56;
+    private static final int EXPIRE_AT = 64;
+    private static final int HOUSES = 72;
+    private static final int SEEDS = 73;
+    private static final int EMPTY_CAPTURE = 74;
+    private static final int STATE = 75;
+    private static final int STATUS = 76;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final Path path;
+    private final int initialSlots;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Scheduler scheduler;
+    private final Disposable[] tasks;
+    private volatile Journal journal;
+    private long seq;
+
+    @Autowired
+    public JournalKalahGameRepository(@Value("${kalah.journal.path:kalah-games.journal}") String path,
+                                      @Value("${kalah.journal.initial-slots:65536}") int initialSlots,
+                                      @Value("${kalah.journal.force-interval-millis:1000}") long forceIntervalMillis,
+                                      @Value("${kalah.journal.expire-interval-seconds:60}") long expireIntervalSeconds) {
+        this.path = Paths.get(path);
+        this.initialSlots = Math.min(initialSlots, MAX_SLOTS);
+        try {
+            journal = Files.exists(this.path) ? recover() : compact(new ArrayList<>(), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var recovered = journal;
+        recovered.index.forEach(slot -> indexId(idAt(recovered.file, slot)));
+        scheduler = Schedulers.newSingle("kalah-journal", true);
+        tasks = new Disposable[]{
+                scheduler.schedulePeriodically(this::force, forceIntervalMillis, forceIntervalMillis, TimeUnit.MILLISECONDS),
+                scheduler.schedulePeriodically(this::expire, expireIntervalSeconds, expireIntervalSeconds, TimeUnit.SECONDS)
+        };
+        log.info("Game journal {} has been opened with {} games", path, journal.index.size());
+    }
+
+    @Override
+    protected KalahGameRecord get(UUID id) {
+        var current = journal;
+        var slot = current.index.get(id);
+        return slot < 0 ? null : read(current.file, slot);
+    }
+
+    @Override
+    protected Collection<KalahGameRecord> values() {
+        var current = journal;
+        var games = new ArrayList<KalahGameRecord>(current.index.size());
+        current.index.forEach(slot -> games.add(read(current.file, slot)));
+        return games;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <S extends KalahGameRecord> S put(S game) {
+        var version = game.getVersion();
+        var saved = game.withVersion(version == null ? 0L : version + 1);
+        writeLock.lock();
+        try {
+            var slot = journal.index.get(game.getId());
+            if (version == null && slot >= 0) {
+                throw new DuplicateKeyException("Game " + game.getId() + " already exists");
+            }
+            if (version != null && (slot < 0 || version != journal.file.getLong((int) slot * SLOT_SIZE + VERSION))) {
+                throw new OptimisticLockingFailureException("Game " + game.getId() + " with version " + version + " was not found");
+            }
+            append(saved, WRITTEN);
+            if (version == null) {
+                indexId(game.getId());
+            }
+            return (S) saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    protected void remove(UUID id) {
+        remove(id, null);
+    }
+
+    private void remove(UUID id, Instant expiredBefore) {
+        writeLock.lock();
+        try {
+            var game = get(id);
+            if (game != null && (expiredBefore == null || isExpired(game, expiredBefore))) {
+                append(game, REMOVED);
+                unindexId(id);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    protected void clear() {
+        writeLock.lock();
+        try {
+            journal = compact(new ArrayList<>(), 0);
+            clearIds();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Forces the written slots to the disk, slots written after the last force may be lost when the system crashes
+     */
+    void force() {
+        journal.file.force();
+    }
+
+    /**
+     * Removes the expired games
+     */
+    void expire() {
+        var now = Instant.now();
+        for (var game : values()) {
+            if (isExpired(game, now)) {
+                // the game is checked again under the lock, it may have been moved since it was read
+                remove(game.getId(), now);
+            }
+        }
+    }
+
+    private static boolean isExpired(KalahGameRecord game, Instant now) {
+        return game.getExpireAt() != null && game.getExpireAt().isBefore(now);
+    }
+
+    @Override
+    public void destroy() {
+        for (var task : tasks) {
+            task.dispose();
+        }
+        scheduler.dispose();
+        force();
+    }
+
+    private void append(KalahGameRecord game, int marker) {
+        var current = journal;
+        if (current.next == current.slots) {
+            try {
+                current = compact(liveSlots(current), current.index.size() + 1);
+                journal = current;
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Game journal could not be compacted", e);
+            }
+        }
+        var slot = current.next++;
+        write(current.file, slot, ++seq, game, marker);
+        if (marker == REMOVED) {
+            current.index.remove(game.getId());
+            return;
+        }
+        if (current.index.isFull()) {
+            current.index = rebuild(current.file, liveSlots(current), current.index.size() * 2);
+        }
+        current.index.put(game.getId(), slot);
+    }
+
+    private static ArrayList<Long> liveSlots(Journal journal) {
+        var slots = new ArrayList<Long>(journal.index.size());
+        journal.index.forEach(slots::add);
+        return slots;
+    }
+
+    /**
+     * Writes the live slots to a new file with room for as many new slots, then replaces the journal file with it
+     */
+    private Journal compact(ArrayList<Long> live, int games) throws IOException {
+        var slots = Math.max(initialSlots, Integer.highestOneBit(Math.max(1, games) * 2 - 1) * 2);
+        if (slots > MAX_SLOTS || games > MAX_SLOTS) {
+            throw new DataAccessResourceFailureException("Game journal is full, " + games + " games are stored");
+        }
+        var source = journal;
+        var temp = path.resolveSibling(path.getFileName() + ".compact");
+        var file = map(temp, Math.min(slots, MAX_SLOTS));
+        for (int i = 0; i < live.size(); i++) {
+            var from = source.file.duplicate();
+            from.position((int) (long) live.get(i) * SLOT_SIZE).limit((int) (long) live.get(i) * SLOT_SIZE + SLOT_SIZE);
+            file.put(from);
+        }
+        file.force();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        var compacted = new Journal(file, file.capacity() / SLOT_SIZE, live.size(), null);
+        var written = new ArrayList<Long>(live.size());
+        for (long i = 0; i < live.size(); i++) {
+            written.add(i);
+        }
+        compacted.index = rebuild(file, written, games);
+        log.debug("Game journal has been compacted to {} games of {} slots", live.size(), compacted.slots);
+        return compacted;
+    }
+
+    /**
+     * Scans all the slots, keeps the latest valid slot of every game, then compacts the journal
+     */
+    private Journal recover() throws IOException {
+        var file = map(path, 0);
+        var slots = file.capacity() / SLOT_SIZE;
+        var latest = new HashMap<UUID, long[]>();
+        var torn = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            var offset = slot * SLOT_SIZE;
+            var marker = file.getInt(offset + MARKER);
+            if (marker == 0) {
+                continue;
+            }
+            if (marker != WRITTEN && marker != REMOVED || file.getInt(offset + CHECKSUM) != checksum(file, offset)) {
+                torn++;
+                continue;
+            }
+            var id = new UUID(file.getLong(offset + MSB), file.getLong(offset + LSB));
+            var slotSeq = file.getLong(offset + SEQ);
+            seq = Math.max(seq, slotSeq);
+            var known = latest.get(id);
+            if (known == null || known[0] < slotSeq) {
+                latest.put(id, new long[]{slotSeq, marker == WRITTEN ? slot : -1});
+            }
+        }
+        if (torn > 0) {
+            log.warn("{} torn slots of the game journal {} have been skipped", torn, path);
+        }
+        var live = new ArrayList<Long>(latest.size());
+        latest.values().forEach(x -> {
+            if (x[1] >= 0) {
+                live.add(x[1]);
+            }
+        });
+        journal = new Journal(file, slots, slots, null);
+        return compact(live, live.size());
+    }
+
+    private static JournalIndex rebuild(MappedByteBuffer file, Collection<Long> slots, int games) {
+        var index = new JournalIndex(Math.max(games, slots.size()));
+        for (var slot : slots) {
+            var offset = (int) (long) slot * SLOT_SIZE;
+            index.put(new UUID(file.getLong(offset + MSB), file.getLong(offset + LSB)), slot);
+        }
+        return index;
+    }
+
+    private static MappedByteBuffer map(Path path, int slots) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var size = slots > 0 ? (long) slots * SLOT_SIZE : channel.size() / SLOT_SIZE * SLOT_SIZE;
+            if (slots > 0) {
+                channel.truncate(0);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static void write(ByteBuffer file, long slot, long seq, KalahGameRecord game, int marker) {
+        var offset = (int) slot * SLOT_SIZE;
+        file.putLong(offset + SEQ, seq);
+        file.putLong(offset + MSB, game.getId().getMostSignificantBits());
+        file.putLong(offset + LSB, game.getId().getLeastSignificantBits());
+        file.putLong(offset + VERSION, game.getVersion() == null ? -1 : game.getVersion());
+        file.putLong(offset + MOVE_COUNT, game.getMoveCount());
+        file.putLong(offset + CREATED_AT, game.getCreatedAt().toEpochMilli());
+        file.putLong(offset + LAST_MOVE_AT, game.getLastMoveAt() == null ? NONE : game.getLastMoveAt().toEpochMilli());
+        file.putLong(offset + EXPIRE_AT, game.getExpireAt() == null ? NONE : game.getExpireAt().toEpochMilli());
+        var variant = game.getVariant();
+        file.put(offset + HOUSES, (byte) variant.getHouses());
+        file.put(offset + SEEDS, (byte) variant.getSeeds());
+        file.put(offset + EMPTY_CAPTURE, (byte) (variant.isEmptyCapture() ? 1 : 0));
+        file.put(offset + STATE, (byte) game.getState().ordinal());
+        var status = game.getStatus();
+        for (int i = 0; i < KalahVariant.MAX_PITS; i++) {
+            file.putShort(offset + STATUS + i * 2, (short) (i < status.length ? status[i] : 0));
+        }
+        file.putInt(offset + CHECKSUM, checksum(file, offset));
+        file.putInt(offset + MARKER, marker);
+    }
+
+    private static UUID idAt(ByteBuffer file, long slot) {
+        var offset = (int) slot * SLOT_SIZE;
+        return new UUID(file.getLong(offset + MSB), file.getLong(offset + LSB));
+    }
+
+    private static KalahGameRecord read(ByteBuffer file, long slot) {
+        var offset = (int) slot * SLOT_SIZE;
+        var variant = KalahVariant.of(file.get(offset + HOUSES), file.get(offset + SEEDS), file.get(offset + EMPTY_CAPTURE) == 1);
+        var status = new int[variant.getPits()];
+        for (int i = 0; i < status.length; i++) {
+            status[i] = file.getShort(offset + STATUS + i * 2);
+        }
+        var version = file.getLong(offset + VERSION);
+        var lastMoveAt = file.getLong(offset + LAST_MOVE_AT);
+        var expireAt = file.getLong(offset + EXPIRE_AT);
+        return new KalahGameRecord(new UUID(file.getLong(offset + MSB), file.getLong(offset + LSB)), status,
+                GameState.values()[file.get(offset + STATE)], variant, file.getLong(offset + MOVE_COUNT),
+                version < 0 ? null : version, Instant.ofEpochMilli(file.getLong(offset + CREATED_AT)),
+                lastMoveAt == NONE ? null : Instant.ofEpochMilli(lastMoveAt),
+                expireAt == NONE ? null : Instant.ofEpochMilli(expireAt));
+    }
+
+    private static int checksum(ByteBuffer file, int offset) {
+        var crc = new CRC32();
+        crc.update(file.duplicate().position(offset + SEQ).limit(offset + SLOT_SIZE));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Mapped journal file with its index, replaced as a whole by the compaction
+     */
+    private static final class Journal {
+        private final MappedByteBuffer file;
+        private final int slots;
+        private int next;
+        private volatile JournalIndex index;
+
+        private Journal(MappedByteBuffer file, int slots, int next, JournalIndex index) {
+            this.file = file;
+            this.slots = slots;
+            this.next = next;
+            this.index = index;
+        }
+    }
+}
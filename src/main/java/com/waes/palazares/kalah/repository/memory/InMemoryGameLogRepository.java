@@ -0,0 +1,78 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Base of the in-memory repositories of the entities numbered within a game, the move log and the snapshots.
+ * Entities of a game are kept in the number order, the id of an entity is made of the game id and the number
+ *
+ * @param <T> type of the entities
+ */
+public abstract class InMemoryGameLogRepository<T> extends InMemoryRepository<T, String> {
+    private final ConcurrentMap<UUID, ConcurrentNavigableMap<Long, T>> games = new ConcurrentHashMap<>();
+
+    protected abstract UUID gameIdOf(T entity);
+
+    protected abstract long numberOf(T entity);
+
+    /**
+     * @param gameId game id
+     * @return entities of the game by number, empty when the game has none
+     */
+    protected ConcurrentNavigableMap<Long, T> of(UUID gameId) {
+        var entities = games.get(gameId);
+        return entities != null ? entities : new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * @param entity entity to store
+     * @return entities of the game of the entity, created when the game has none
+     */
+    protected ConcurrentNavigableMap<Long, T> forEntity(T entity) {
+        return games.computeIfAbsent(gameIdOf(entity), x -> new ConcurrentSkipListMap<>());
+    }
+
+    @Override
+    protected T get(String id) {
+        var separator = id.lastIndexOf(':');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return of(UUID.fromString(id.substring(0, separator))).get(Long.parseLong(id.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected Collection<T> values() {
+        var values = new ArrayList<T>();
+        games.values().forEach(x -> values.addAll(x.values()));
+        return values;
+    }
+
+    @Override
+    protected void remove(String id) {
+        var entity = get(id);
+        if (entity != null) {
+            of(gameIdOf(entity)).remove(numberOf(entity), entity);
+        }
+    }
+
+    @Override
+    protected void clear() {
+        games.clear();
+    }
+
+    @Override
+    protected String idOf(T entity) {
+        return gameIdOf(entity) + ":" + numberOf(entity);
+    }
+}
@@ -0,0 +1,217 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock-free in-memory game storage of the {@code memory} profile, for casual games and load tests without a database.
+ * Records are immutable, a save replaces the stored record only if it still has the version the game was loaded with,
+ * otherwise it fails with {@code OptimisticLockingFailureException} like the database does.
+ * Every {@code kalah.memory.flush-interval-seconds} the expired games are removed and, when {@code kalah.memory.path}
+ * is set, all the games are written to the file, which is loaded on the start
+ */
+@Repository
+@Profile("memory")
+@Slf4j
+public class InMemoryKalahGameRepository extends LocalKalahGameRepository implements DisposableBean {
+    private static final int MAGIC = 0x4b47414d;
+    private static final int FORMAT = 1;
+
+    private final ConcurrentMap<UUID, KalahGameRecord> games = new ConcurrentHashMap<>();
+    private final Path path;
+    private final Scheduler scheduler;
+    private final Disposable flushTask;
+
+    /**
+     * Creates the storage without the file and the expiration of games
+     */
+    public InMemoryKalahGameRepository() {
+        this("", 0);
+    }
+
+    @Autowired
+    public InMemoryKalahGameRepository(@Value("${kalah.memory.path:}") String path,
+                                       @Value("${kalah.memory.flush-interval-seconds:60}") long flushIntervalSeconds) {
+        this.path = path.isEmpty() ? null : Paths.get(path);
+        if (this.path != null && Files.isReadable(this.path)) {
+            load(this.path);
+        }
+        if (flushIntervalSeconds > 0) {
+            scheduler = Schedulers.newSingle("kalah-memory-flush", true);
+            flushTask = scheduler.schedulePeriodically(this::flush, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler = null;
+            flushTask = null;
+        }
+        log.info("In-memory game storage has been started with {} games, file: '{}'", games.size(), path);
+    }
+
+    @Override
+    protected KalahGameRecord get(UUID id) {
+        return games.get(id);
+    }
+
+    @Override
+    protected Collection<KalahGameRecord> values() {
+        return games.values();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <S extends KalahGameRecord> S put(S game) {
+        var version = game.getVersion();
+        var saved = game.withVersion(version == null ? 0L : version + 1);
+        if (version == null) {
+            if (games.putIfAbsent(game.getId(), saved) != null) {
+                throw new DuplicateKeyException("Game " + game.getId() + " already exists");
+            }
+            indexId(game.getId());
+            return (S) saved;
+        }
+        var current = games.get(game.getId());
+        if (current == null || !version.equals(current.getVersion()) || !games.replace(game.getId(), current, saved)) {
+            throw new OptimisticLockingFailureException("Game " + game.getId() + " with version " + version + " was not found");
+        }
+        return (S) saved;
+    }
+
+    @Override
+    protected void remove(UUID id) {
+        games.remove(id);
+        unindexId(id);
+    }
+
+    @Override
+    protected void clear() {
+        games.clear();
+        clearIds();
+    }
+
+    /**
+     * Removes the expired games and writes the games to the file
+     */
+    void flush() {
+        var now = Instant.now();
+        for (var game : games.values()) {
+            if (game.getExpireAt() != null && game.getExpireAt().isBefore(now) && games.remove(game.getId(), game)) {
+                unindexId(game.getId());
+            }
+        }
+        if (path == null) {
+            return;
+        }
+        try {
+            save(path);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Games could not be written to {}: {}", path, e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (flushTask != null) {
+            flushTask.dispose();
+            scheduler.dispose();
+        }
+        flush();
+    }
+
+    private void save(Path target) throws IOException {
+        var games = this.games.values().toArray(new KalahGameRecord[0]);
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeInt(games.length);
+            for (var game : games) {
+                write(out, game);
+            }
+        }
+        // the previous file is kept until the new one is complete
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("{} games have been written to {}", games.length, target);
+    }
+
+    private void load(Path source) {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                throw new IllegalStateException("Not a game storage file: " + source);
+            }
+            var count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                var game = read(in);
+                games.put(game.getId(), game);
+                indexId(game.getId());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(DataOutputStream out, KalahGameRecord game) throws IOException {
+        out.writeLong(game.getId().getMostSignificantBits());
+        out.writeLong(game.getId().getLeastSignificantBits());
+        var variant = game.getVariant();
+        out.writeByte(variant.getHouses());
+        out.writeByte(variant.getSeeds());
+        out.writeBoolean(variant.isEmptyCapture());
+        for (var seeds : game.getStatus()) {
+            out.writeShort(seeds);
+        }
+        out.writeByte(game.getState().ordinal());
+        out.writeLong(game.getMoveCount());
+        out.writeLong(game.getVersion() == null ? -1 : game.getVersion());
+        out.writeLong(game.getCreatedAt().toEpochMilli());
+        out.writeLong(game.getLastMoveAt() == null ? Long.MIN_VALUE : game.getLastMoveAt().toEpochMilli());
+        out.writeLong(game.getExpireAt() == null ? Long.MIN_VALUE : game.getExpireAt().toEpochMilli());
+    }
+
+    private static KalahGameRecord read(DataInputStream in) throws IOException {
+        var id = new UUID(in.readLong(), in.readLong());
+        var houses = in.readByte();
+        var seeds = in.readByte();
+        var variant = KalahVariant.of(houses, seeds, in.readBoolean());
+        var status = new int[variant.getPits()];
+        for (int i = 0; i < status.length; i++) {
+            status[i] = in.readShort();
+        }
+        var state = GameState.values()[in.readByte()];
+        var moveCount = in.readLong();
+        var version = in.readLong();
+        var createdAt = Instant.ofEpochMilli(in.readLong());
+        var lastMoveAt = in.readLong();
+        var expireAt = in.readLong();
+        return new KalahGameRecord(id, status, state, variant, moveCount, version < 0 ? null : version, createdAt,
+                lastMoveAt == Long.MIN_VALUE ? null : Instant.ofEpochMilli(lastMoveAt),
+                expireAt == Long.MIN_VALUE ? null : Instant.ofEpochMilli(expireAt));
+    }
+}
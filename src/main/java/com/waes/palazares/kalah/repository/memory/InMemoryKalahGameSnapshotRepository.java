@@ -0,0 +1,40 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.domain.KalahGameSnapshot;
+import com.waes.palazares.kalah.repository.KalahGameSnapshotRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * In-memory game snapshots of the {@code memory} and {@code journal} profiles, a snapshot saved again replaces the previous one
+ */
+@Repository
+@Profile({"memory", "journal"})
+public class InMemoryKalahGameSnapshotRepository extends InMemoryGameLogRepository<KalahGameSnapshot> implements KalahGameSnapshotRepository {
+    @Override
+    public Mono<KalahGameSnapshot> findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(UUID gameId, long moveCount) {
+        return Mono.fromSupplier(() -> {
+            var snapshot = of(gameId).floorEntry(moveCount);
+            return snapshot != null ? snapshot.getValue() : null;
+        });
+    }
+
+    @Override
+    protected <S extends KalahGameSnapshot> S put(S snapshot) {
+        forEntity(snapshot).put(snapshot.getMoveCount(), snapshot);
+        return snapshot;
+    }
+
+    @Override
+    protected UUID gameIdOf(KalahGameSnapshot snapshot) {
+        return snapshot.getGameId();
+    }
+
+    @Override
+    protected long numberOf(KalahGameSnapshot snapshot) {
+        return snapshot.getMoveCount();
+    }
+}
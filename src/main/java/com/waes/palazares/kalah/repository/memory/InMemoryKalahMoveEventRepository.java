@@ -0,0 +1,48 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import com.waes.palazares.kalah.repository.KalahMoveEventRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * In-memory move log of the {@code memory} and {@code journal} profiles.
+ * Like the unique index of the storage, a sequence number of a game is taken by the first insert,
+ * the events inserted before a duplicate are kept
+ */
+@Repository
+@Profile({"memory", "journal"})
+public class InMemoryKalahMoveEventRepository extends InMemoryGameLogRepository<KalahMoveEvent> implements KalahMoveEventRepository {
+    @Override
+    public <S extends KalahMoveEvent> Flux<S> insert(Iterable<S> events) {
+        return saveAll(events);
+    }
+
+    @Override
+    public Flux<KalahMoveEvent> findMoves(UUID gameId, long after, long upTo) {
+        return Flux.defer(() -> after >= upTo ? Flux.empty() :
+                Flux.fromIterable(of(gameId).subMap(after, false, upTo, true).values()));
+    }
+
+    @Override
+    protected <S extends KalahMoveEvent> S put(S event) {
+        if (forEntity(event).putIfAbsent(event.getSeq(), event) != null) {
+            throw new DuplicateKeyException("Move " + event.getSeq() + " of game " + event.getGameId() + " is already logged");
+        }
+        return event;
+    }
+
+    @Override
+    protected UUID gameIdOf(KalahMoveEvent event) {
+        return event.getGameId();
+    }
+
+    @Override
+    protected long numberOf(KalahMoveEvent event) {
+        return event.getSeq();
+    }
+}
@@ -0,0 +1,128 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import org.reactivestreams.Publisher;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Base of the in-memory repositories, implements the reactive CRUD operations over the storage primitives.
+ * Operations complete on the subscribing thread, entities are immutable and replaced as a whole
+ *
+ * @param <T>  type of the entities
+ * @param <ID> type of the ids
+ */
+public abstract class InMemoryRepository<T, ID> implements ReactiveCrudRepository<T, ID> {
+    /**
+     * @param id entity id
+     * @return stored entity or null
+     */
+    protected abstract T get(ID id);
+
+    /**
+     * @return weakly consistent view of the stored entities
+     */
+    protected abstract Collection<T> values();
+
+    /**
+     * Stores the entity following the storage rules, for example the unique keys and versions
+     *
+     * @param entity entity to store
+     * @param <S>    type of the entity
+     * @return stored entity
+     */
+    protected abstract <S extends T> S put(S entity);
+
+    protected abstract void remove(ID id);
+
+    protected abstract void clear();
+
+    protected abstract ID idOf(T entity);
+
+    @Override
+    public <S extends T> Mono<S> save(S entity) {
+        return Mono.fromCallable(() -> put(entity));
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Iterable<S> entities) {
+        return Flux.fromIterable(entities).concatMap(this::save);
+    }
+
+    @Override
+    public <S extends T> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).concatMap(this::save);
+    }
+
+    @Override
+    public Mono<T> findById(ID id) {
+        return Mono.fromSupplier(() -> get(id));
+    }
+
+    @Override
+    public Mono<T> findById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(ID id) {
+        return Mono.fromSupplier(() -> get(id) != null);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<T> findAll() {
+        return Flux.defer(() -> Flux.fromIterable(values()));
+    }
+
+    @Override
+    public Flux<T> findAllById(Iterable<ID> ids) {
+        return Flux.fromIterable(ids).concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<T> findAllById(Publisher<ID> idStream) {
+        return Flux.from(idStream).concatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) values().size());
+    }
+
+    @Override
+    public Mono<Void> deleteById(ID id) {
+        return Mono.fromRunnable(() -> remove(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<ID> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(T entity) {
+        return Mono.fromRunnable(() -> remove(idOf(entity)));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends T> entities) {
+        return Flux.fromIterable(entities).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends T> entityStream) {
+        return Flux.from(entityStream).concatMap(this::delete).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.fromRunnable(this::clear);
+    }
+}
@@ -0,0 +1,99 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.repository.BlockingKalahGameRepository;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Base of the game repositories kept by the service process itself.
+ * Ids of the stored games are kept in a sorted set, so a page is listed from the first id after the previous page
+ * and only the games of the page are read, skipping the games of other states.
+ * Implementations keep the set up to date with {@link #indexId(UUID)} and {@link #unindexId(UUID)}.
+ * The games are also read and written synchronously by the blocking profile
+ */
+public abstract class LocalKalahGameRepository extends InMemoryRepository<KalahGameRecord, UUID>
+        implements KalahGameRepository, BlockingKalahGameRepository {
+    // the database compares binary ids as unsigned bytes
+    private static final Comparator<UUID> ID_ORDER = Comparator
+            .<UUID>comparingLong(x -> x.getMostSignificantBits() ^ Long.MIN_VALUE)
+            .thenComparingLong(x -> x.getLeastSignificantBits() ^ Long.MIN_VALUE);
+
+    private final NavigableSet<UUID> ids = new ConcurrentSkipListSet<>(ID_ORDER);
+
+    @Override
+    public Flux<KalahGameRecord> findByIdGreaterThanOrderByIdAsc(UUID after, Pageable page) {
+        return findByStateAndIdGreaterThanOrderByIdAsc(null, after, page);
+    }
+
+    @Override
+    public Flux<KalahGameRecord> findByStateAndIdGreaterThanOrderByIdAsc(GameState state, UUID after, Pageable page) {
+        return Flux.defer(() -> Flux.fromIterable(ids.tailSet(after, false)))
+                .<KalahGameRecord>handle((id, sink) -> {
+                    // the game may have been removed since the id was read
+                    var game = get(id);
+                    if (game != null && (state == null || game.getState() == state)) {
+                        sink.next(game);
+                    }
+                })
+                .take(page.getPageSize());
+    }
+
+    @Override
+    public KalahGameRecord find(UUID id) {
+        return get(id);
+    }
+
+    @Override
+    public KalahGameRecord store(KalahGameRecord game) {
+        return put(game);
+    }
+
+    @Override
+    public Flux<KalahGameRecord> replaceAll(List<KalahGameRecord> games) {
+        return Flux.fromIterable(games)
+                .handle((game, sink) -> {
+                    try {
+                        sink.next(put(game));
+                    } catch (OptimisticLockingFailureException e) {
+                        // the game has been stored with another version or removed, it is not replaced
+                    }
+                });
+    }
+
+    /**
+     * Adds the id of a stored game to the listing order
+     *
+     * @param id game id
+     */
+    protected void indexId(UUID id) {
+        ids.add(id);
+    }
+
+    /**
+     * Removes the id of a removed game from the listing order
+     *
+     * @param id game id
+     */
+    protected void unindexId(UUID id) {
+        ids.remove(id);
+    }
+
+    protected void clearIds() {
+        ids.clear();
+    }
+
+    @Override
+    protected UUID idOf(KalahGameRecord game) {
+        return game.getId();
+    }
+}
@@ -0,0 +1,159 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.event.KalahGameEvents;
+import com.waes.palazares.kalah.exception.*;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.BlockingKalahGameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Game operations of the blocking profile, run on the request thread without the reactive pipeline.
+ * Games are read from and written to {@link BlockingKalahGameRepository} directly, so the profile runs with
+ * the memory or the journal storage. Every move is saved with optimistic locking and retried a limited number
+ * of times on concurrent updates, like {@link OptimisticMoveExecutor} does, the other move modes are not supported.
+ * Saved games are cached and published to {@link KalahGameEvents}, so the endpoints served by
+ * {@link KalahGameService} see them. Requests are validated like {@link KalahGameServiceImpl} does
+ */
+@Service
+@Profile("blocking")
+@Slf4j
+public class BlockingKalahGameService {
+    private final BlockingKalahGameRepository repository;
+    private final KalahGameCache cache;
+    private final KalahGameMetrics metrics;
+    private final KalahGameEvents events;
+    private final long maxRetries;
+
+    @Autowired
+    public BlockingKalahGameService(BlockingKalahGameRepository repository, KalahGameCache cache,
+                                    KalahGameMetrics metrics, KalahGameEvents events,
+                                    @Value("${kalah.move.mode:optimistic}") String moveMode,
+                                    @Value("${kalah.move.max-retries:3}") long maxRetries) {
+        if (!"optimistic".equals(moveMode)) {
+            throw new IllegalArgumentException("Move mode " + moveMode + " is not supported by the blocking profile");
+        }
+        this.repository = repository;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.events = events;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Creates a new Kalah game of the board variant.
+     * Missing settings are taken from the default 6x6 board
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
+     * @return persisted Kalah game record
+     * @throws Exception when the variant is not supported or the game can not be stored
+     */
+    public KalahGameRecord create(Integer houses, Integer seeds, Boolean emptyCapture) throws Exception {
+        return metrics.time(KalahGameMetrics.CREATE, () -> doCreate(houses, seeds, emptyCapture));
+    }
+
+    /**
+     * Finds Kalah game
+     *
+     * @param gameId Kalah game id
+     * @return latest Kalah game record
+     * @throws Exception when the id is invalid or the game does not exist
+     */
+    public KalahGameRecord get(String gameId) throws Exception {
+        return metrics.time(KalahGameMetrics.GET, () -> doGet(gameId));
+    }
+
+    /**
+     * Makes a move in Kalah game
+     *
+     * @param gameId Kalah game id
+     * @param pitId  pit id (a house of the game board) to make a move
+     * @return persisted Kalah game record
+     * @throws Exception when the move can not be made or saved
+     */
+    public KalahGameRecord move(String gameId, String pitId) throws Exception {
+        return metrics.time(KalahGameMetrics.MOVE, () -> doMove(gameId, pitId));
+    }
+
+    private KalahGameRecord doCreate(Integer houses, Integer seeds, Boolean emptyCapture) throws Exception {
+        log.debug("Create new game request, houses {}, seeds {}, empty capture {}", houses, seeds, emptyCapture);
+
+        var variant = KalahGameServiceImpl.variantOf(houses, seeds, emptyCapture);
+        if (variant == null) {
+            throw new InvalidVariantException();
+        }
+
+        var game = store(new KalahGameRecord(variant));
+        log.debug("New game {} has been created", game.getId());
+        return game;
+    }
+
+    private KalahGameRecord doGet(String gameId) throws Exception {
+        log.debug("Get request for game {}", gameId);
+
+        var id = KalahGameServiceImpl.parseGameId(gameId);
+        if (id == null) {
+            throw InavlidIdException.INSTANCE;
+        }
+
+        return find(id);
+    }
+
+    private KalahGameRecord doMove(String gameId, String pitIdString) throws Exception {
+        log.debug("Move request {} for game {}", pitIdString, gameId);
+
+        var id = KalahGameServiceImpl.parseGameId(gameId);
+        if (id == null) {
+            throw InavlidIdException.INSTANCE;
+        }
+
+        if (pitIdString == null || pitIdString.trim().isEmpty()) {
+            log.debug("Move request has empty pit id");
+            throw InavlidIdException.INSTANCE;
+        }
+
+        var pitId = RequestParser.parsePitId(pitIdString);
+        if (pitId == 0) {
+            log.debug("Move request has pit id which is not a number within the pits of the largest board");
+            throw InvalidPitIdException.INSTANCE;
+        }
+
+        for (long retries = 0; ; retries++) {
+            var updated = KalahGameServiceImpl.makeMove(find(id), pitId);
+            try {
+                var saved = store(updated.withoutHistory());
+                events.publish(saved);
+                log.debug("Move {} has been successfully performed", pitId);
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                log.debug("Game {} was modified concurrently", id);
+                if (retries == maxRetries) {
+                    throw new ConcurrentMoveException();
+                }
+            }
+        }
+    }
+
+    private KalahGameRecord find(UUID id) throws Exception {
+        var game = metrics.time(KalahGameMetrics.REPOSITORY_LOAD, () -> repository.find(id));
+        if (game == null) {
+            throw InvalidRecordException.INSTANCE;
+        }
+        return game;
+    }
+
+    private KalahGameRecord store(KalahGameRecord game) throws Exception {
+        var saved = metrics.time(KalahGameMetrics.REPOSITORY_SAVE, () -> repository.store(cache.expiring(game)));
+        return cache.put(saved);
+    }
+}
@@ -0,0 +1,91 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.ConcurrentMoveException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import com.waes.palazares.kalah.history.KalahGameHistory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Opt-in {@code MoveExecutor} enabled with {@code kalah.move.mode=events}.
+ * Moves are appended to the move log of {@link KalahGameHistory} instead of rewriting the game document,
+ * which is only saved together with the snapshots, when the game is finished and when its stored expiration time
+ * falls behind the last move by more than {@code kalah.history.expiration-refresh-seconds}, so the storage does not
+ * remove games which are still played. Games loaded from the repository are completed
+ * with the moves appended after they were saved. Concurrent moves from the same position are detected
+ * by the unique sequence numbers of the log and retried a limited number of times
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.move.mode", havingValue = "events")
+@Slf4j
+public class EventSourcedMoveExecutor implements MoveExecutor {
+    private final KalahGameCache cache;
+    private final KalahGameHistory history;
+    private final long maxRetries;
+    private final Duration expirationRefresh;
+
+    @Autowired
+    public EventSourcedMoveExecutor(KalahGameCache cache, KalahGameHistory history,
+                                    @Value("${kalah.move.max-retries:3}") long maxRetries,
+                                    @Value("${kalah.history.expiration-refresh-seconds:3600}") long expirationRefreshSeconds) {
+        this.cache = cache;
+        this.history = history;
+        this.maxRetries = maxRetries;
+        this.expirationRefresh = Duration.ofSeconds(expirationRefreshSeconds);
+    }
+
+    @Override
+    public Mono<KalahGameRecord> execute(UUID id, GameUpdate update) {
+        var record = find(id).switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE));
+
+        return record.flatMap(r -> {
+            KalahGameRecord updated;
+            try {
+                updated = update.apply(r);
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+            if (updated == r) {
+                return Mono.just(r);
+            }
+            return history.append(updated, cache.expiration(updated))
+                    .flatMap(x -> isSaveDue(r, x) ? save(x) : Mono.just(cache.put(x)));
+        }).doOnError(DuplicateKeyException.class, e -> {
+            log.debug("Game {} was modified concurrently", id);
+            cache.invalidate(id);
+        })
+                .retry(maxRetries, DuplicateKeyException.class::isInstance)
+                .onErrorMap(DuplicateKeyException.class, e -> new ConcurrentMoveException());
+    }
+
+    @Override
+    public Mono<KalahGameRecord> find(UUID id) {
+        return cache.findById(id, history::restore);
+    }
+
+    private boolean isSaveDue(KalahGameRecord before, KalahGameRecord after) {
+        return history.isSnapshotTaken(before, after) || after.getState() == GameState.FINISHED ||
+                cache.isExpirationBehind(after, expirationRefresh);
+    }
+
+    private Mono<KalahGameRecord> save(KalahGameRecord game) {
+        // the moves are already in the log, a stale document is completed from the log on the next load
+        return cache.save(game).onErrorResume(OptimisticLockingFailureException.class, e -> {
+            log.debug("Game {} document was saved concurrently", game.getId());
+            cache.invalidate(game.getId());
+            return Mono.just(game);
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.GameFinishedException;
+import com.waes.palazares.kalah.exception.InvalidMoveException;
+import com.waes.palazares.kalah.exception.InvalidPitIdException;
+
+/**
+ * Pure function applied to a loaded game.
+ * Returning the same instance means nothing has changed and nothing has to be saved
+ */
+@FunctionalInterface
+public interface GameUpdate {
+    KalahGameRecord apply(KalahGameRecord game) throws GameFinishedException, InvalidMoveException, InvalidPitIdException;
+}
@@ -1,25 +1,127 @@
 package com.waes.palazares.kalah.service;
 
+import com.waes.palazares.kalah.domain.KalahBestMoveResult;
+import com.waes.palazares.kalah.domain.KalahEvaluationResult;
+import com.waes.palazares.kalah.domain.KalahGamePageResult;
 import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahMovesResult;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * {@code KalahGameService} interface defines methods to play Kalah game
  */
 public interface KalahGameService {
     /**
-     * Creates a new Kalah game
+     * Creates a new Kalah game on the default board
      *
      * @return persisted Kalah game record
      */
     Mono<KalahGameRecord> create();
 
+    /**
+     * Creates a new Kalah game of the board variant.
+     * Missing settings are taken from the default 6x6 board
+     *
+     * @param houses       number of houses per side, optional
+     * @param seeds        number of seeds per house at the start, optional
+     * @param emptyCapture whether the last seed captures when the opposite house is empty, optional
+     * @return persisted Kalah game record
+     */
+    Mono<KalahGameRecord> create(Integer houses, Integer seeds, Boolean emptyCapture);
+
+    /**
+     * Creates a number of new Kalah games with a single storage call
+     *
+     * @param count number of games to create
+     * @return persisted Kalah game records
+     */
+    Flux<KalahGameRecord> createAll(int count);
+
+    /**
+     * Finds Kalah game
+     *
+     * @param gameId Kalah game id
+     * @return latest Kalah game record
+     */
+    Mono<KalahGameRecord> get(String gameId);
+
+    /**
+     * Lists Kalah games in the id order, a page starts after the last game of the previous page
+     *
+     * @param state state of the games, all games when null
+     * @param after id of the last game of the previous page, the first page when null
+     * @param size  maximum number of games, the configured default when null
+     * @return page of Kalah game records with the id to start the next page after
+     */
+    Mono<KalahGamePageResult> list(String state, String after, Integer size);
+
     /**
      * Makes a move in Kalah game
      *
      * @param gameId Kalah game id
-     * @param pitId  pit id (from 1 to 14) to make a move
+     * @param pitId  pit id (a house of the game board) to make a move
      * @return persisted Kalah game record
      */
     Mono<KalahGameRecord> move(String gameId, String pitId);
+
+    /**
+     * Makes a sequence of moves in Kalah game with a single load and save.
+     * Moves are applied in order until the first one which can not be applied
+     *
+     * @param gameId Kalah game id
+     * @param pitIds pit ids (houses of the game board) of the moves in order
+     * @return persisted Kalah game record and the index of the failed move
+     */
+    Mono<KalahMovesResult> moves(String gameId, List<Integer> pitIds);
+
+    /**
+     * Makes a move of the computer player in Kalah game.
+     * The move is searched within the depth and time budget, both capped by the configured limits
+     *
+     * @param gameId     Kalah game id
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return persisted Kalah game record
+     */
+    Mono<KalahGameRecord> aiMove(String gameId, Integer depth, Integer timeMillis);
+
+    /**
+     * Finds the best move of the player to move with the parallel search, the game is not changed.
+     * The search depth and time are capped by the configured limits
+     *
+     * @param gameId     Kalah game id
+     * @param depth      search depth in plies, optional
+     * @param timeMillis search time in milliseconds, optional
+     * @return analysed Kalah game record with the best move
+     */
+    Mono<KalahBestMoveResult> bestMove(String gameId, Integer depth, Integer timeMillis);
+
+    /**
+     * Evaluates the game position. Positions of the endgame table get the exact value,
+     * other positions are estimated with the search
+     *
+     * @param gameId Kalah game id
+     * @return evaluated Kalah game record with the expected final difference of the stores
+     */
+    Mono<KalahEvaluationResult> evaluate(String gameId);
+
+    /**
+     * Rebuilds Kalah game after a number of moves from the move log
+     *
+     * @param gameId    Kalah game id
+     * @param moveCount number of moves from the start of the game, the latest game when null
+     * @return Kalah game record after the moves
+     */
+    Mono<KalahGameRecord> replay(String gameId, Long moveCount);
+
+    /**
+     * Streams state changes of Kalah game
+     *
+     * @param gameId Kalah game id
+     * @return Kalah game records after every change
+     */
+    Flux<KalahGameRecord> events(String gameId);
 }
@@ -1,83 +1,466 @@
 package com.waes.palazares.kalah.service;
 
 import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.ai.KalahAi;
+import com.waes.palazares.kalah.ai.ParallelKalahAi;
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahBestMoveResult;
+import com.waes.palazares.kalah.domain.KalahEvaluationResult;
+import com.waes.palazares.kalah.domain.KalahGamePageResult;
 import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahMovesResult;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import com.waes.palazares.kalah.endgame.KalahEndgameTable;
+import com.waes.palazares.kalah.event.KalahGameEvents;
+import com.waes.palazares.kalah.history.KalahGameHistory;
 import com.waes.palazares.kalah.exception.*;
-import com.waes.palazares.kalah.repository.KalahGameRepository;
-import lombok.RequiredArgsConstructor;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Implementation of {@code KalahGameService} interface.
- * Integrates with reactive CRUD storage, makes validation checks, builds game results
+ * Integrates with reactive CRUD storage through the game cache, makes validation checks, builds game results.
+ * Loading and saving of moved games is delegated to the configured {@link MoveExecutor}.
+ * All operations are timed by {@link KalahGameMetrics}, including the ones rejected by validation.
+ * Changed games are published to {@link KalahGameEvents}.
+ * Computer moves are searched by {@link KalahAi} on the parallel scheduler, outside of the move executor,
+ * best move analysis runs on the dedicated pool of {@link ParallelKalahAi}.
+ * Positions are evaluated with {@link KalahEndgameTable} first and with the search otherwise.
+ * Pit ids are checked against the variant of the game once it is loaded.
+ * Games are replayed from the move log of {@link KalahGameHistory}.
+ * Games are listed page by page with keyset pagination on the game id.
+ * Move requests are validated without throwing: ids are parsed by {@link RequestParser}, moves are checked against
+ * the legal moves of the game and rejected with the shared exceptions, which have no stack traces
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class KalahGameServiceImpl implements KalahGameService {
-    private final KalahGameRepository repository;
+    private final KalahGameCache cache;
+    private final MoveExecutor executor;
+    private final KalahGameMetrics metrics;
+    private final KalahGameEvents events;
+    private final KalahAi ai;
+    private final ParallelKalahAi parallelAi;
+    private final KalahEndgameTable endgameTable;
+    private final KalahGameHistory history;
+    private final int maxBatchSize;
+    private final int maxCreateSize;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public KalahGameServiceImpl(KalahGameCache cache, MoveExecutor executor, KalahGameMetrics metrics, KalahGameEvents events,
+                                KalahAi ai, ParallelKalahAi parallelAi, KalahEndgameTable endgameTable, KalahGameHistory history,
+                                @Value("${kalah.move.max-batch-size:100}") int maxBatchSize,
+                                @Value("${kalah.create.max-batch-size:1000}") int maxCreateSize,
+                                @Value("${kalah.list.default-page-size:20}") int defaultPageSize,
+                                @Value("${kalah.list.max-page-size:100}") int maxPageSize) {
+        this.cache = cache;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.events = events;
+        this.ai = ai;
+        this.parallelAi = parallelAi;
+        this.endgameTable = endgameTable;
+        this.history = history;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCreateSize = maxCreateSize;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
 
     @Override
     public Mono<KalahGameRecord> create() {
+        return metrics.time(KalahGameMetrics.CREATE, doCreate());
+    }
+
+    @Override
+    public Mono<KalahGameRecord> create(Integer houses, Integer seeds, Boolean emptyCapture) {
+        return metrics.time(KalahGameMetrics.CREATE, doCreate(houses, seeds, emptyCapture));
+    }
+
+    @Override
+    public Flux<KalahGameRecord> createAll(int count) {
+        return metrics.time(KalahGameMetrics.CREATE_ALL, doCreateAll(count));
+    }
+
+    @Override
+    public Mono<KalahGameRecord> get(String gameId) {
+        return metrics.time(KalahGameMetrics.GET, doGet(gameId));
+    }
+
+    @Override
+    public Mono<KalahGamePageResult> list(String state, String after, Integer size) {
+        return metrics.time(KalahGameMetrics.LIST, doList(state, after, size));
+    }
+
+    @Override
+    public Mono<KalahGameRecord> move(String gameId, String pitIdString) {
+        return metrics.time(KalahGameMetrics.MOVE, doMove(gameId, pitIdString));
+    }
+
+    @Override
+    public Mono<KalahMovesResult> moves(String gameId, List<Integer> pitIds) {
+        return metrics.time(KalahGameMetrics.MOVES, doMoves(gameId, pitIds));
+    }
+
+    @Override
+    public Mono<KalahGameRecord> aiMove(String gameId, Integer depth, Integer timeMillis) {
+        return metrics.time(KalahGameMetrics.AI_MOVE, doAiMove(gameId, depth, timeMillis));
+    }
+
+    @Override
+    public Mono<KalahBestMoveResult> bestMove(String gameId, Integer depth, Integer timeMillis) {
+        return metrics.time(KalahGameMetrics.BEST_MOVE, doBestMove(gameId, depth, timeMillis));
+    }
+
+    @Override
+    public Mono<KalahEvaluationResult> evaluate(String gameId) {
+        return metrics.time(KalahGameMetrics.EVALUATION, doEvaluate(gameId));
+    }
+
+    @Override
+    public Mono<KalahGameRecord> replay(String gameId, Long moveCount) {
+        return metrics.time(KalahGameMetrics.REPLAY, doReplay(gameId, moveCount));
+    }
+
+    @Override
+    public Flux<KalahGameRecord> events(String gameId) {
+        log.debug("Events request for game {}", gameId);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Flux.error(InavlidIdException.INSTANCE);
+        }
+
+        return events.subscribe(id);
+    }
+
+    private Mono<KalahGameRecord> doCreate() {
         log.debug("Create new game request");
 
-        return repository.save(new KalahGameRecord())
+        return save(new KalahGameRecord());
+    }
+
+    private Mono<KalahGameRecord> doCreate(Integer houses, Integer seeds, Boolean emptyCapture) {
+        log.debug("Create new game request, houses {}, seeds {}, empty capture {}", houses, seeds, emptyCapture);
+
+        var variant = variantOf(houses, seeds, emptyCapture);
+        if (variant == null) {
+            return Mono.error(new InvalidVariantException());
+        }
+
+        return save(new KalahGameRecord(variant));
+    }
+
+    private Mono<KalahGameRecord> save(KalahGameRecord game) {
+        return cache.save(game)
                 .doOnSuccess(x -> log.debug("New game {} has been created", x.getId()))
                 .doOnError(e -> log.debug("Error during creating a new game: {}", e.getMessage()));
     }
 
-    @Override
-    public Mono<KalahGameRecord> move(String gameId, String pitIdString) {
-        log.debug("Move request {} for game {}", pitIdString, gameId);
+    private Flux<KalahGameRecord> doCreateAll(int count) {
+        log.debug("Create {} new games request", count);
 
-        if (gameId == null || gameId.trim().isEmpty()) {
-            log.debug("Move request has empty game id");
-            return Mono.error(new InavlidIdException());
+        if (count < 1 || count > maxCreateSize) {
+            log.debug("Create request has invalid number of games");
+            return Flux.error(new InvalidBatchSizeException());
         }
 
-        UUID id;
-        try {
-            id = UUID.fromString(gameId);
-        } catch (Exception e) {
-            log.debug("Move request has game id not in UUID format");
-            return Mono.error(new InavlidIdException());
+        var records = new ArrayList<KalahGameRecord>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(new KalahGameRecord());
+        }
+
+        return cache.saveAll(records)
+                .doOnComplete(() -> log.debug("{} new games have been created", count))
+                .doOnError(e -> log.debug("Error during creating new games: {}", e.getMessage()));
+    }
+
+    private Mono<KalahGameRecord> doGet(String gameId) {
+        log.debug("Get request for game {}", gameId);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        return executor.find(id).switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE));
+    }
+
+    private Mono<KalahGamePageResult> doList(String state, String after, Integer size) {
+        log.debug("List request for state {} after game {}, size {}", state, after, size);
+
+        GameState gameState = null;
+        if (state != null) {
+            try {
+                gameState = GameState.valueOf(state);
+            } catch (IllegalArgumentException e) {
+                log.debug("List request has unknown game state");
+                return Mono.error(new InvalidPageException());
+            }
+        }
+
+        var pageSize = size == null ? defaultPageSize : size;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            log.debug("List request has invalid page size");
+            return Mono.error(new InvalidPageException());
+        }
+
+        // ids are compared as unsigned bytes, so the zero id precedes any game
+        var afterId = after == null ? new UUID(0, 0) : parseGameId(after);
+        if (afterId == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        var filter = gameState;
+        return cache.findAll(gameState, afterId, pageSize)
+                .collectList()
+                .map(games -> {
+                    var next = games.size() == pageSize ? games.get(games.size() - 1).getId() : null;
+                    // cached games may have been moved to another state since they were stored
+                    games.removeIf(x -> filter != null && x.getState() != filter);
+                    return new KalahGamePageResult(games, next);
+                })
+                .doOnSuccess(x -> log.debug("{} games have been listed", x.getGames().size()))
+                .doOnError(e -> log.debug("Error during list request: {}", e.getMessage()));
+    }
+
+    private Mono<KalahGameRecord> doMove(String gameId, String pitIdString) {
+        log.debug("Move request {} for game {}", pitIdString, gameId);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
         }
 
         if (pitIdString == null || pitIdString.trim().isEmpty()) {
             log.debug("Move request has empty pit id");
-            return Mono.error(new InavlidIdException());
+            return Mono.error(InavlidIdException.INSTANCE);
         }
 
-        int pitId;
-        try {
-            pitId = Integer.parseInt(pitIdString);
-        } catch (NumberFormatException ex) {
-            log.debug("Move request has wrong format pit id");
-            return Mono.error(new InvalidPitIdException());
+        var pitId = RequestParser.parsePitId(pitIdString);
+        if (pitId == 0) {
+            log.debug("Move request has pit id which is not a number within the pits of the largest board");
+            return Mono.error(InvalidPitIdException.INSTANCE);
         }
 
-        if (pitId < 1 || pitId == 7 || pitId > 13) {
-            log.debug("Move request has pit id outside of allowed range [1-6,8-13]");
-            return Mono.error(new InvalidPitIdException());
+        return executor.execute(id, r -> makeMove(r, pitId))
+                .doOnNext(events::publish)
+                .doOnSuccess(x -> log.debug("Move {} has been successfully performed", pitId))
+                .doOnError(e -> log.debug("Error during move request: {}", e.getMessage()));
+    }
+
+    private Mono<KalahMovesResult> doMoves(String gameId, List<Integer> pitIds) {
+        log.debug("Moves request {} for game {}", pitIds, gameId);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
         }
 
-        var record = repository.findById(id).switchIfEmpty(Mono.error(new InvalidRecordException()));
+        if (pitIds == null || pitIds.isEmpty() || pitIds.size() > maxBatchSize) {
+            log.debug("Moves request has invalid number of moves");
+            return Mono.error(new InvalidBatchSizeException());
+        }
 
-        return record.flatMap(r -> {
-            try {
-                return Mono.just(makeMove(r, pitId));
-            } catch (Exception e) {
-                return Mono.error(e);
+        var failedMoveIndex = new int[1];
+        var failure = new Exception[1];
+
+        return executor.execute(id, r -> {
+            failedMoveIndex[0] = -1;
+            failure[0] = null;
+            var game = r;
+            for (int i = 0; i < pitIds.size(); i++) {
+                var pitId = pitIds.get(i);
+                try {
+                    if (pitId == null) {
+                        throw InvalidPitIdException.INSTANCE;
+                    }
+                    game = makeMove(game, pitId);
+                } catch (Exception e) {
+                    log.debug("Move {} with index {} can not be applied", pitId, i);
+                    failedMoveIndex[0] = i;
+                    failure[0] = e;
+                    break;
+                }
             }
-        }).doOnSuccess(x -> log.debug("Move {} has been successfully performed", pitId))
-                .doOnError(e -> log.debug("Error during move request: {}", e.getMessage()));
+            return game;
+        }).doOnNext(x -> {
+            if (failedMoveIndex[0] != 0) {
+                events.publish(x);
+            }
+        }).map(x -> new KalahMovesResult(x, failedMoveIndex[0], failure[0]))
+                .doOnSuccess(x -> log.debug("Moves request has been performed, failed move: {}", x.getFailedMoveIndex()))
+                .doOnError(e -> log.debug("Error during moves request: {}", e.getMessage()));
     }
 
-    private static KalahGameRecord makeMove(KalahGameRecord game, int pitId) throws GameFinishedException, InvalidMoveException {
+    private Mono<KalahGameRecord> doAiMove(String gameId, Integer depth, Integer timeMillis) {
+        log.debug("AI move request for game {}, depth {}, time {}", gameId, depth, timeMillis);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        if (depth != null && depth < 1 || timeMillis != null && timeMillis < 1) {
+            log.debug("AI move request has invalid search depth or time");
+            return Mono.error(new InvalidSearchBudgetException());
+        }
+
+        return executor.find(id)
+                .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                .publishOn(Schedulers.parallel())
+                .flatMap(searched -> {
+                    var hash = KalahGame.hash(searched);
+                    var planned = ai.bestMove(searched, depth, timeMillis);
+                    log.debug("AI move {} has been found at depth {}", planned.getPitId(), planned.getDepth());
+                    return executor.execute(id, r -> {
+                        // the game may have been changed after the search, then it is searched again
+                        var pitId = KalahGame.hash(r) == hash ? planned.getPitId() : ai.bestMove(r, depth, timeMillis).getPitId();
+                        return makeAiMove(r, pitId);
+                    });
+                })
+                .doOnNext(events::publish)
+                .doOnSuccess(x -> log.debug("AI move has been successfully performed"))
+                .doOnError(e -> log.debug("Error during AI move request: {}", e.getMessage()));
+    }
+
+    private Mono<KalahBestMoveResult> doBestMove(String gameId, Integer depth, Integer timeMillis) {
+        log.debug("Best move request for game {}, depth {}, time {}", gameId, depth, timeMillis);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        if (depth != null && depth < 1 || timeMillis != null && timeMillis < 1) {
+            log.debug("Best move request has invalid search depth or time");
+            return Mono.error(new InvalidSearchBudgetException());
+        }
+
+        return executor.find(id)
+                .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                .flatMap(game -> Mono.fromFuture(parallelAi.bestMove(game, depth, timeMillis))
+                        .map(x -> new KalahBestMoveResult(game, x.getPitId(), x.getScore(), x.getDepth(), x.getNodes())))
+                .doOnSuccess(x -> log.debug("Best move {} has been found at depth {}", x.getPitId(), x.getDepth()))
+                .doOnError(e -> log.debug("Error during best move request: {}", e.getMessage()));
+    }
+
+    private Mono<KalahEvaluationResult> doEvaluate(String gameId) {
+        log.debug("Evaluation request for game {}", gameId);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        return executor.find(id)
+                .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                .flatMap(game -> {
+                    if (game.getState() == GameState.FINISHED) {
+                        var status = game.getStatus();
+                        var variant = game.getVariant();
+                        return Mono.just(new KalahEvaluationResult(game, status[variant.getSouthStore()] - status[variant.getNorthStore()], true));
+                    }
+                    // the endgame table is generated for the default board
+                    var value = KalahVariant.DEFAULT.equals(game.getVariant()) ?
+                            endgameTable.lookup(game.getStatus(), game.getState()) : KalahEndgameTable.UNKNOWN;
+                    if (value != KalahEndgameTable.UNKNOWN) {
+                        return Mono.just(new KalahEvaluationResult(game, southScore(game, value), true));
+                    }
+                    log.debug("Game {} is not in the endgame table, evaluating with the search", gameId);
+                    return Mono.fromCallable(() -> ai.bestMove(game, null, null))
+                            .subscribeOn(Schedulers.parallel())
+                            .map(x -> new KalahEvaluationResult(game, southScore(game, x.getScore()), false));
+                })
+                .doOnSuccess(x -> log.debug("Game {} has been evaluated: {}", gameId, x.getScore()))
+                .doOnError(e -> log.debug("Error during evaluation request: {}", e.getMessage()));
+    }
+
+    private Mono<KalahGameRecord> doReplay(String gameId, Long moveCount) {
+        log.debug("Replay request for game {} after {} moves", gameId, moveCount);
+
+        var id = parseGameId(gameId);
+        if (id == null) {
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        return executor.find(id)
+                .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                .flatMap(game -> {
+                    var count = moveCount == null ? game.getMoveCount() : moveCount;
+                    if (count < 0 || count > game.getMoveCount()) {
+                        log.debug("Replay request has move number outside of the {} moves played", game.getMoveCount());
+                        return Mono.error(new InvalidReplayException());
+                    }
+                    return history.replay(game, count);
+                })
+                .doOnSuccess(x -> log.debug("Game {} has been replayed", gameId))
+                .doOnError(e -> log.debug("Error during replay request: {}", e.getMessage()));
+    }
+
+    /**
+     * @return board variant with the missing settings of the default board, null if it is not supported
+     */
+    static KalahVariant variantOf(Integer houses, Integer seeds, Boolean emptyCapture) {
+        var defaults = KalahVariant.DEFAULT;
+        var variantHouses = houses == null ? defaults.getHouses() : houses;
+        var variantSeeds = seeds == null ? defaults.getSeeds() : seeds;
+        if (!KalahVariant.isValid(variantHouses, variantSeeds)) {
+            log.debug("Create request has invalid board variant");
+            return null;
+        }
+        return KalahVariant.of(variantHouses, variantSeeds, emptyCapture == null ? defaults.isEmptyCapture() : emptyCapture);
+    }
+
+    static UUID parseGameId(String gameId) {
+        if (gameId == null || gameId.trim().isEmpty()) {
+            log.debug("Request has empty game id");
+            return null;
+        }
+
+        var id = RequestParser.parseGameId(gameId);
+        if (id == null) {
+            log.debug("Request has game id not in UUID format");
+        }
+        return id;
+    }
+
+    private static int southScore(KalahGameRecord game, int score) {
+        return game.getState() == GameState.NORTH_TURN ? -score : score;
+    }
+
+    private static KalahGameRecord makeAiMove(KalahGameRecord game, int pitId)
+            throws GameFinishedException, InvalidMoveException, InvalidPitIdException {
+        if (game.getState() == GameState.FINISHED) {
+            log.debug("AI move request for already finished game");
+            throw GameFinishedException.INSTANCE;
+        }
+        if (pitId < 1) {
+            log.debug("AI move request for the game without legal moves");
+            throw InvalidMoveException.INSTANCE;
+        }
+        return makeMove(game, pitId);
+    }
+
+    static KalahGameRecord makeMove(KalahGameRecord game, int pitId)
+            throws GameFinishedException, InvalidMoveException, InvalidPitIdException {
+        if (!game.getVariant().isHouse(pitId)) {
+            log.debug("Move request has pit id {} which is not a house of the {} board", pitId, game.getVariant());
+            throw InvalidPitIdException.INSTANCE;
+        }
         return KalahGame.makeMove(game, pitId);
     }
 }
@@ -0,0 +1,230 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in {@code MoveExecutor} enabled with {@code kalah.move.mode=mailbox}.
+ * Every game is bound to one of the striped single thread schedulers, so all moves of a game are applied
+ * one by one against the in-memory record without locks or optimistic retries.
+ * Changed games are persisted in batches by size or time, therefore a game must be served by a single instance.
+ * Games are held in memory only while they have moves which are not saved yet. Moves are acknowledged before they
+ * are saved, so a game which can not be saved is queued again for the next batch: on a version conflict the stored
+ * game is reloaded and the pending moves are rebased on its version
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.move.mode", havingValue = "mailbox")
+@Slf4j
+public class MailboxMoveExecutor implements MoveExecutor, DisposableBean {
+    private final KalahGameCache cache;
+    private final Mailbox[] mailboxes;
+    private final int flushSize;
+
+    @Autowired
+    public MailboxMoveExecutor(KalahGameCache cache,
+                               @Value("${kalah.mailbox.stripes:0}") int stripes,
+                               @Value("${kalah.mailbox.flush-interval-millis:50}") long flushIntervalMillis,
+                               @Value("${kalah.mailbox.flush-size:256}") int flushSize) {
+        this.cache = cache;
+        this.flushSize = flushSize;
+        var count = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.mailboxes = new Mailbox[count];
+        for (int i = 0; i < count; i++) {
+            mailboxes[i] = new Mailbox(Schedulers.newSingle("kalah-mailbox-" + i, true), flushIntervalMillis);
+        }
+    }
+
+    @Override
+    public Mono<KalahGameRecord> execute(UUID id, GameUpdate update) {
+        return mailbox(id).execute(id, update);
+    }
+
+    @Override
+    public Mono<KalahGameRecord> find(UUID id) {
+        return mailbox(id).find(id);
+    }
+
+    private Mailbox mailbox(UUID id) {
+        return mailboxes[(id.hashCode() & Integer.MAX_VALUE) % mailboxes.length];
+    }
+
+    /**
+     * Persists all pending games
+     *
+     * @return completes when the pending games are saved
+     */
+    Mono<Void> flush() {
+        return Flux.fromArray(mailboxes)
+                .flatMap(m -> Mono.defer(m::flush).subscribeOn(m.scheduler))
+                .then();
+    }
+
+    /**
+     * @return number of games held in memory by the mailboxes
+     */
+    Mono<Integer> size() {
+        return Flux.fromArray(mailboxes)
+                .flatMap(m -> Mono.fromCallable(m::size).subscribeOn(m.scheduler))
+                .reduce(0, Integer::sum);
+    }
+
+    @Override
+    public void destroy() {
+        flush().block(Duration.ofSeconds(10));
+        for (var mailbox : mailboxes) {
+            mailbox.flushTask.dispose();
+            mailbox.scheduler.dispose();
+        }
+    }
+
+    /**
+     * All the state of a mailbox is confined to its scheduler thread
+     */
+    private final class Mailbox {
+        private final Scheduler scheduler;
+        private final Disposable flushTask;
+        private final Map<UUID, KalahGameRecord> games = new HashMap<>();
+        private final Map<UUID, KalahGameRecord> pending = new LinkedHashMap<>();
+        private boolean flushing;
+
+        private Mailbox(Scheduler scheduler, long flushIntervalMillis) {
+            this.scheduler = scheduler;
+            this.flushTask = scheduler.schedulePeriodically(() -> flush().subscribe(),
+                    flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private Mono<KalahGameRecord> execute(UUID id, GameUpdate update) {
+            return Mono.defer(() -> {
+                var game = games.get(id);
+                if (game != null) {
+                    return apply(id, game, update);
+                }
+                return cache.findById(id)
+                        .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                        .publishOn(scheduler)
+                        .flatMap(loaded -> {
+                            // the game may have been loaded and moved by another request meanwhile
+                            var current = games.get(id);
+                            return apply(id, current != null ? current : loaded, update);
+                        });
+            }).subscribeOn(scheduler);
+        }
+
+        private Mono<KalahGameRecord> find(UUID id) {
+            return Mono.defer(() -> {
+                var game = games.get(id);
+                return game != null ? Mono.just(game) : cache.findById(id);
+            }).subscribeOn(scheduler);
+        }
+
+        private Mono<KalahGameRecord> apply(UUID id, KalahGameRecord game, GameUpdate update) {
+            KalahGameRecord updated;
+            try {
+                updated = update.apply(game);
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+            if (updated != game) {
+                updated = updated.withoutHistory();
+                games.put(id, updated);
+                pending.put(id, updated);
+                if (pending.size() >= flushSize) {
+                    flush().subscribe();
+                }
+            }
+            return Mono.just(updated);
+        }
+
+        private Mono<Void> flush() {
+            if (flushing || pending.isEmpty()) {
+                return Mono.empty();
+            }
+            flushing = true;
+            var batch = new ArrayList<>(pending.values());
+            pending.clear();
+            log.debug("Saving {} games", batch.size());
+
+            return Flux.fromIterable(batch)
+                    .flatMap(x -> cache.save(x)
+                            .publishOn(scheduler)
+                            .doOnNext(saved -> onSaved(x, saved))
+                            .onErrorResume(e -> onFailed(x, e)))
+                    .then()
+                    .publishOn(scheduler)
+                    .doFinally(x -> flushing = false);
+        }
+
+        private void onSaved(KalahGameRecord flushed, KalahGameRecord saved) {
+            var id = saved.getId();
+            var current = games.get(id);
+            if (current == flushed) {
+                // nothing has changed since the flush, the cache already holds the saved record
+                games.remove(id);
+                return;
+            }
+            if (current != null) {
+                var rebased = current.withVersion(saved.getVersion());
+                games.put(id, rebased);
+                pending.computeIfPresent(id, (x, y) -> rebased);
+            }
+        }
+
+        /**
+         * Queues the latest record of the game for the next batch, the moves have been acknowledged already
+         */
+        private Mono<Void> onFailed(KalahGameRecord flushed, Throwable e) {
+            var id = flushed.getId();
+            if (!(e instanceof OptimisticLockingFailureException)) {
+                log.warn("Game {} could not be saved, it is queued for the next batch: {}", id, e.getMessage());
+                pending.put(id, games.get(id));
+                return Mono.empty();
+            }
+
+            log.warn("Game {} has been stored by another instance, pending moves are rebased on the stored game", id);
+            cache.invalidate(id);
+            return cache.findById(id)
+                    .publishOn(scheduler)
+                    .doOnNext(stored -> {
+                        var rebased = games.get(id).withVersion(stored.getVersion());
+                        games.put(id, rebased);
+                        pending.put(id, rebased);
+                    })
+                    .switchIfEmpty(Mono.fromRunnable(() -> {
+                        log.error("Game {} has been removed from the storage, pending moves are discarded", id);
+                        games.remove(id);
+                        pending.remove(id);
+                    }))
+                    .onErrorResume(reloadError -> {
+                        log.warn("Game {} could not be reloaded, it is queued for the next batch: {}", id, reloadError.getMessage());
+                        pending.put(id, games.get(id));
+                        return Mono.empty();
+                    })
+                    .then();
+        }
+
+        private int size() {
+            return games.size();
+        }
+    }
+}
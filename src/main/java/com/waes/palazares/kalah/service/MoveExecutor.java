@@ -0,0 +1,29 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * {@code MoveExecutor} loads a game, applies an update and persists the result.
+ * Implementations differ in how concurrent updates of the same game are handled
+ */
+public interface MoveExecutor {
+    /**
+     * Applies the update to the game
+     *
+     * @param id     game id
+     * @param update update to apply
+     * @return updated game record, {@code InvalidRecordException} error when the game does not exist
+     */
+    Mono<KalahGameRecord> execute(UUID id, GameUpdate update);
+
+    /**
+     * Finds the latest known state of the game
+     *
+     * @param id game id
+     * @return game record or empty if the game does not exist
+     */
+    Mono<KalahGameRecord> find(UUID id);
+}
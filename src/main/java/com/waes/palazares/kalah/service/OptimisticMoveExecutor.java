@@ -0,0 +1,57 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.ConcurrentMoveException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Default {@code MoveExecutor}.
+ * Every update is saved with optimistic locking and retried a limited number of times on concurrent updates
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.move.mode", havingValue = "optimistic", matchIfMissing = true)
+@Slf4j
+public class OptimisticMoveExecutor implements MoveExecutor {
+    private final KalahGameCache cache;
+    private final long maxRetries;
+
+    @Autowired
+    public OptimisticMoveExecutor(KalahGameCache cache, @Value("${kalah.move.max-retries:3}") long maxRetries) {
+        this.cache = cache;
+        this.maxRetries = maxRetries;
+    }
+
+    @Override
+    public Mono<KalahGameRecord> execute(UUID id, GameUpdate update) {
+        var record = cache.findById(id).switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE));
+
+        return record.flatMap(r -> {
+            try {
+                var updated = update.apply(r);
+                return updated == r ? Mono.just(r) : cache.save(updated.withoutHistory());
+            } catch (Exception e) {
+                return Mono.error(e);
+            }
+        }).doOnError(OptimisticLockingFailureException.class, e -> {
+            log.debug("Game {} was modified concurrently", id);
+            cache.invalidate(id);
+        })
+                .retry(maxRetries, OptimisticLockingFailureException.class::isInstance)
+                .onErrorMap(OptimisticLockingFailureException.class, e -> new ConcurrentMoveException());
+    }
+
+    @Override
+    public Mono<KalahGameRecord> find(UUID id) {
+        return cache.findById(id);
+    }
+}
@@ -0,0 +1,121 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.domain.KalahVariant;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Parsers of the request parameters which report invalid values with a result instead of an exception.
+ * Game ids are accepted in the same forms as {@link UUID#fromString(String)}, pit ids in the same forms as
+ * {@link Integer#parseInt(String)}, nothing is allocated besides the parsed id
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RequestParser {
+    private static final int MAX_UUID_LENGTH = 36;
+
+    /**
+     * @param gameId game id
+     * @return game id or null when it is not a UUID
+     */
+    static UUID parseGameId(String gameId) {
+        var length = gameId.length();
+        if (length > MAX_UUID_LENGTH) {
+            return null;
+        }
+        var dash1 = gameId.indexOf('-');
+        var dash2 = gameId.indexOf('-', dash1 + 1);
+        var dash3 = gameId.indexOf('-', dash2 + 1);
+        var dash4 = gameId.indexOf('-', dash3 + 1);
+        if (dash1 < 0 || dash2 < 0 || dash3 < 0 || dash4 < 0 || gameId.indexOf('-', dash4 + 1) >= 0) {
+            return null;
+        }
+        if (!isLong(gameId, 0, dash1) || !isLong(gameId, dash1 + 1, dash2) || !isLong(gameId, dash2 + 1, dash3) ||
+                !isLong(gameId, dash3 + 1, dash4) || !isLong(gameId, dash4 + 1, length)) {
+            return null;
+        }
+
+        var mostSigBits = parseLong(gameId, 0, dash1) & 0xffffffffL;
+        mostSigBits = mostSigBits << 16 | parseLong(gameId, dash1 + 1, dash2) & 0xffffL;
+        mostSigBits = mostSigBits << 16 | parseLong(gameId, dash2 + 1, dash3) & 0xffffL;
+        var leastSigBits = (parseLong(gameId, dash3 + 1, dash4) & 0xffffL) << 48;
+        leastSigBits |= parseLong(gameId, dash4 + 1, length) & 0xffffffffffffL;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @param pitId pit id
+     * @return pit id if it is a number within the pits of the largest board, otherwise 0
+     */
+    static int parsePitId(String pitId) {
+        var length = pitId.length();
+        var negative = false;
+        var i = 0;
+        if (length > 0 && (pitId.charAt(0) == '-' || pitId.charAt(0) == '+')) {
+            negative = pitId.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            return 0;
+        }
+
+        var value = 0;
+        for (; i < length; i++) {
+            var digit = Character.digit(pitId.charAt(i), 10);
+            if (digit < 0) {
+                return 0;
+            }
+            // larger values are out of range either way, the remaining characters are still checked
+            value = Math.min(value * 10 + digit, KalahVariant.MAX_PITS);
+        }
+        return negative || value >= KalahVariant.MAX_PITS ? 0 : value;
+    }
+
+    /**
+     * Checks the hexadecimal number the same way as {@link Long#parseLong(CharSequence, int, int, int)}
+     */
+    private static boolean isLong(String value, int begin, int end) {
+        var negative = false;
+        if (begin < end && (value.charAt(begin) == '-' || value.charAt(begin) == '+')) {
+            negative = value.charAt(begin) == '-';
+            begin++;
+        }
+        if (begin == end) {
+            return false;
+        }
+
+        var significant = 0;
+        var first = 0;
+        var rest = 0;
+        for (int i = begin; i < end; i++) {
+            var digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return false;
+            }
+            if (significant == 0) {
+                if (digit != 0) {
+                    significant = 1;
+                    first = digit;
+                }
+            } else {
+                significant++;
+                rest |= digit;
+            }
+        }
+        // 16 digits fit when the first one is below 8, or it is exactly 8 followed by zeros for the minimum
+        return significant < 16 || significant == 16 && (first < 8 || negative && first == 8 && rest == 0);
+    }
+
+    private static long parseLong(String value, int begin, int end) {
+        var negative = value.charAt(begin) == '-';
+        if (negative || value.charAt(begin) == '+') {
+            begin++;
+        }
+        var result = 0L;
+        for (int i = begin; i < end; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return negative ? -result : result;
+    }
+}
@@ -0,0 +1,300 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.ConcurrentMoveException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import io.micrometer.core.instrument.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.publisher.UnicastProcessor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Opt-in {@code MoveExecutor} enabled with {@code kalah.move.mode=write-behind}.
+ * Moves are applied on the caller thread to the latest pending record of the game, which is replaced with
+ * compare-and-set, so rapid moves on the same board are coalesced and only the last record is saved.
+ * Games with pending moves are emitted to a {@code Flux} sink and saved in batches by size or time window,
+ * one bulk write per batch and one batch at a time. Once the number of pending games reaches the limit, moves of
+ * the other games wait for a batch to be saved. Moves are acknowledged when they are pending or,
+ * with {@code kalah.write-behind.ack=flush}, when the game is saved. Games which fail to save are queued for
+ * the next batch. A game must be served by a single instance, moves acknowledged before they are saved
+ * are discarded when the game has been stored by another instance
+ */
+@Component
+@ConditionalOnProperty(name = "kalah.move.mode", havingValue = "write-behind")
+@Slf4j
+public class WriteBehindMoveExecutor implements MoveExecutor, DisposableBean {
+    static final String ACK_ENQUEUE = "enqueue";
+    static final String ACK_FLUSH = "flush";
+
+    private final KalahGameCache cache;
+    private final KalahGameMetrics metrics;
+    private final long maxRetries;
+    private final int maxPending;
+    private final boolean ackOnFlush;
+    private final ConcurrentMap<UUID, PendingGame> pending = new ConcurrentHashMap<>();
+    private final FluxSink<UUID> sink;
+    private final MonoProcessor<Void> terminated = MonoProcessor.create();
+    private volatile MonoProcessor<Void> drained = MonoProcessor.create();
+
+    @Autowired
+    public WriteBehindMoveExecutor(KalahGameCache cache, KalahGameMetrics metrics,
+                                   @Value("${kalah.move.max-retries:3}") long maxRetries,
+                                   @Value("${kalah.write-behind.flush-size:256}") int flushSize,
+                                   @Value("${kalah.write-behind.flush-interval-millis:50}") long flushIntervalMillis,
+                                   @Value("${kalah.write-behind.max-pending:10000}") int maxPending,
+                                   @Value("${kalah.write-behind.ack:enqueue}") String ack) {
+        if (!ACK_ENQUEUE.equals(ack) && !ACK_FLUSH.equals(ack)) {
+            throw new IllegalArgumentException("Unknown write-behind acknowledgement: " + ack);
+        }
+        this.cache = cache;
+        this.metrics = metrics;
+        this.maxRetries = maxRetries;
+        this.maxPending = maxPending;
+        this.ackOnFlush = ACK_FLUSH.equals(ack);
+
+        UnicastProcessor<UUID> queue = UnicastProcessor.create();
+        this.sink = queue.sink();
+        // a pending game has at most one id waiting in the queue, so there are no more batches than pending games
+        queue.bufferTimeout(flushSize, Duration.ofMillis(flushIntervalMillis))
+                .onBackpressureBuffer(maxPending)
+                .concatMap(this::flush)
+                .then()
+                .subscribe(terminated);
+        Gauge.builder("kalah.games.pending", pending, Map::size)
+                .description("Games with moves waiting to be saved")
+                .register(metrics.getRegistry());
+    }
+
+    @Override
+    public Mono<KalahGameRecord> execute(UUID id, GameUpdate update) {
+        return enqueue(id, update)
+                .doOnError(OptimisticLockingFailureException.class, e -> log.debug("Game {} was modified concurrently", id))
+                .retry(maxRetries, OptimisticLockingFailureException.class::isInstance)
+                .onErrorMap(OptimisticLockingFailureException.class, e -> new ConcurrentMoveException());
+    }
+
+    @Override
+    public Mono<KalahGameRecord> find(UUID id) {
+        return Mono.defer(() -> {
+            var current = pending.get(id);
+            return current != null ? Mono.just(current.game) : cache.findById(id);
+        });
+    }
+
+    private Mono<KalahGameRecord> enqueue(UUID id, GameUpdate update) {
+        return Mono.defer(() -> {
+            var current = pending.get(id);
+            if (current != null) {
+                return apply(id, current, current.game, update);
+            }
+            if (pending.size() >= maxPending) {
+                log.debug("{} games are waiting to be saved, game {} waits for the next batch", pending.size(), id);
+                return drained.then(enqueue(id, update));
+            }
+            return cache.findById(id)
+                    .switchIfEmpty(Mono.error(InvalidRecordException.INSTANCE))
+                    .flatMap(loaded -> apply(id, null, loaded, update));
+        });
+    }
+
+    private Mono<KalahGameRecord> apply(UUID id, PendingGame current, KalahGameRecord game, GameUpdate update) {
+        KalahGameRecord updated;
+        try {
+            updated = update.apply(game);
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+        if (updated == game) {
+            return Mono.just(game);
+        }
+
+        // moves made while the game is being saved wait for the next batch
+        var saved = current != null && !current.inFlight ? current.saved : MonoProcessor.<KalahGameRecord>create();
+        var next = new PendingGame(updated.withoutHistory(), saved, false);
+        if (current != null) {
+            if (!pending.replace(id, current, next)) {
+                return Mono.error(new OptimisticLockingFailureException("Game " + id + " has a newer pending move"));
+            }
+        } else {
+            // the game may have been saved and removed from the pending games after it was loaded,
+            // then the cache holds the saved record
+            if (pending.computeIfAbsent(id, x -> cache.isCached(game) ? next : null) != next) {
+                return Mono.error(new OptimisticLockingFailureException("Game " + id + " has a newer pending move"));
+            }
+            sink.next(id);
+        }
+        return ackOnFlush ? saved.thenReturn(next.game) : Mono.just(next.game);
+    }
+
+    private Mono<Void> flush(List<UUID> ids) {
+        var batch = new ArrayList<PendingGame>(ids.size());
+        for (var id : new LinkedHashSet<>(ids)) {
+            var taken = take(id);
+            if (taken != null) {
+                batch.add(taken);
+            }
+        }
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        log.debug("Saving {} games", batch.size());
+
+        var games = new ArrayList<KalahGameRecord>(batch.size());
+        for (var taken : batch) {
+            games.add(taken.game);
+        }
+        return metrics.time(KalahGameMetrics.REPOSITORY_FLUSH, cache.replaceAll(games).collectMap(KalahGameRecord::getId))
+                .doOnNext(saved -> {
+                    for (var taken : batch) {
+                        var game = saved.get(taken.game.getId());
+                        if (game != null) {
+                            onSaved(taken, game);
+                        } else {
+                            onFailed(taken, new OptimisticLockingFailureException(
+                                    "Game " + taken.game.getId() + " with version " + taken.game.getVersion() + " was not found"));
+                        }
+                    }
+                })
+                .onErrorResume(e -> {
+                    batch.forEach(taken -> onFailed(taken, e));
+                    return Mono.empty();
+                })
+                .then()
+                .doFinally(x -> {
+                    var waiting = drained;
+                    drained = MonoProcessor.create();
+                    waiting.onComplete();
+                });
+    }
+
+    /**
+     * Marks the pending game as being saved, so the following moves are not acknowledged by this batch
+     */
+    private PendingGame take(UUID id) {
+        while (true) {
+            var current = pending.get(id);
+            if (current == null || current.inFlight) {
+                return null;
+            }
+            var taken = new PendingGame(current.game, current.saved, true);
+            if (pending.replace(id, current, taken)) {
+                return taken;
+            }
+        }
+    }
+
+    private void onSaved(PendingGame taken, KalahGameRecord saved) {
+        var id = saved.getId();
+        while (true) {
+            var current = pending.get(id);
+            if (current == taken) {
+                if (pending.remove(id, taken)) {
+                    break;
+                }
+            } else if (current != null) {
+                // the game has been moved while it was saved, the moves are rebased on the saved version
+                var rebased = new PendingGame(current.game.withVersion(saved.getVersion()), current.saved, false);
+                if (pending.replace(id, current, rebased)) {
+                    sink.next(id);
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        taken.saved.onNext(saved);
+    }
+
+    private void onFailed(PendingGame taken, Throwable e) {
+        var id = taken.game.getId();
+        if (!(e instanceof OptimisticLockingFailureException)) {
+            log.warn("Game {} could not be saved, pending moves are queued for the next batch: {}", id, e.getMessage());
+            requeue(taken);
+            return;
+        }
+        log.warn("Game {} has been stored by another instance, pending moves are discarded", id);
+        var current = pending.remove(id);
+        cache.invalidate(id);
+
+        var error = new ConcurrentMoveException();
+        taken.saved.onError(error);
+        if (current != null && current != taken) {
+            current.saved.onError(error);
+        }
+    }
+
+    /**
+     * Queues a game which could not be saved for the next batch, its moves are acknowledged when it is saved
+     */
+    private void requeue(PendingGame taken) {
+        var id = taken.game.getId();
+        while (true) {
+            var current = pending.get(id);
+            if (current == null) {
+                return;
+            }
+            if (current == taken) {
+                if (pending.replace(id, taken, new PendingGame(taken.game, taken.saved, false))) {
+                    break;
+                }
+            } else {
+                // the game has been moved while it was saved, the latest record includes the moves of the batch
+                current.saved.subscribe(taken.saved);
+                break;
+            }
+        }
+        sink.next(id);
+    }
+
+    /**
+     * Saves all pending games, must not run concurrently with the batches
+     *
+     * @return completes when the pending games are saved
+     */
+    Mono<Void> flush() {
+        return Mono.defer(() -> flush(new ArrayList<>(pending.keySet())));
+    }
+
+    @Override
+    public void destroy() {
+        sink.complete();
+        terminated.block(Duration.ofSeconds(10));
+        // games moved while the last batch was saved
+        flush().block(Duration.ofSeconds(10));
+    }
+
+    /**
+     * Latest record of a game with moves which are not saved yet.
+     * Moves coalesced into the record share the processor completed when it is saved
+     */
+    private static final class PendingGame {
+        private final KalahGameRecord game;
+        private final MonoProcessor<KalahGameRecord> saved;
+        private final boolean inFlight;
+
+        private PendingGame(KalahGameRecord game, MonoProcessor<KalahGameRecord> saved, boolean inFlight) {
+            this.game = game;
+            this.saved = saved;
+            this.inFlight = inFlight;
+        }
+    }
+}
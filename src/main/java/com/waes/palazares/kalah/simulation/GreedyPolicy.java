@@ -0,0 +1,44 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays the move with the largest immediate gain of the own store, a move giving another turn wins a tie.
+ * Remaining ties are broken randomly
+ */
+public class GreedyPolicy implements Policy {
+    private final KalahBoard next;
+
+    public GreedyPolicy(KalahVariant variant) {
+        next = new KalahBoard(variant);
+    }
+
+    @Override
+    public int choose(KalahBoard board, SplittableRandom random) {
+        var store = board.getState() == GameState.SOUTH_TURN ? board.getSouthStore() : board.getNorthStore();
+        var first = board.firstPitId();
+        var best = -1;
+        var bestGain = Integer.MIN_VALUE;
+        var ties = 0;
+        for (int pit = first; pit < first + board.getHouses(); pit++) {
+            if (!board.isLegal(pit)) {
+                continue;
+            }
+            next.copyFrom(board).move(pit);
+            // store gain counts twice, so another turn only decides between equal gains
+            var gain = (next.get(store) - board.get(store)) * 2 + (next.getLastPit() == store ? 1 : 0);
+            if (gain > bestGain) {
+                best = pit;
+                bestGain = gain;
+                ties = 1;
+            } else if (gain == bestGain && random.nextInt(++ties) == 0) {
+                best = pit;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,20 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.KalahBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Strategy of a simulated player.
+ * Implementations are not thread safe, every simulation worker creates its own instances
+ */
+public interface Policy {
+    /**
+     * Chooses the move of the player to move without changing the board
+     *
+     * @param board  board with at least one legal move
+     * @param random random source of the worker
+     * @return pit id to play
+     */
+    int choose(KalahBoard board, SplittableRandom random);
+}
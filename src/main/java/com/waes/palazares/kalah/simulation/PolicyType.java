@@ -0,0 +1,37 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.domain.KalahVariant;
+
+/**
+ * Available policies of the simulated players
+ */
+public enum PolicyType {
+    /**
+     * Plays a random legal move
+     */
+    RANDOM,
+    /**
+     * Plays the move with the largest immediate gain of the own store, ties are broken randomly
+     */
+    GREEDY,
+    /**
+     * Plays the best move of the fixed depth alpha-beta search
+     */
+    SEARCH;
+
+    /**
+     * @param variant board variant
+     * @param depth   search depth in plies, used by the search policy
+     * @return new policy instance
+     */
+    public Policy create(KalahVariant variant, int depth) {
+        switch (this) {
+            case GREEDY:
+                return new GreedyPolicy(variant);
+            case SEARCH:
+                return new SearchPolicy(variant, depth);
+            default:
+                return new RandomPolicy();
+        }
+    }
+}
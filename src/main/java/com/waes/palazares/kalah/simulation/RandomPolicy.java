@@ -0,0 +1,29 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.KalahBoard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays a random legal move
+ */
+public class RandomPolicy implements Policy {
+    @Override
+    public int choose(KalahBoard board, SplittableRandom random) {
+        var first = board.firstPitId();
+        var last = first + board.getHouses();
+        var legal = 0;
+        for (int pit = first; pit < last; pit++) {
+            if (board.isLegal(pit)) {
+                legal++;
+            }
+        }
+        var chosen = random.nextInt(legal);
+        for (int pit = first; pit < last; pit++) {
+            if (board.isLegal(pit) && chosen-- == 0) {
+                return pit;
+            }
+        }
+        throw new IllegalStateException("No legal move");
+    }
+}
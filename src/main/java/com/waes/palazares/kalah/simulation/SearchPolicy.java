@@ -0,0 +1,35 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.ai.KalahSearch;
+import com.waes.palazares.kalah.ai.TranspositionTable;
+import com.waes.palazares.kalah.domain.KalahVariant;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays the best move of the fixed depth alpha-beta search, without a time limit
+ */
+public class SearchPolicy implements Policy {
+    private static final long NO_TIME_LIMIT = TimeUnit.DAYS.toNanos(1);
+    private static final int TABLE_BITS = 16;
+
+    private final KalahSearch search;
+    private final int depth;
+    private final int[] status;
+
+    public SearchPolicy(KalahVariant variant, int depth) {
+        this.search = new KalahSearch(variant, new TranspositionTable(TABLE_BITS));
+        this.depth = depth;
+        this.status = new int[variant.getPits()];
+    }
+
+    @Override
+    public int choose(KalahBoard board, SplittableRandom random) {
+        for (int i = 0; i < status.length; i++) {
+            status[i] = board.get(i);
+        }
+        return search.search(status, board.getState(), depth, NO_TIME_LIMIT).getPitId();
+    }
+}
@@ -0,0 +1,20 @@
+package com.waes.palazares.kalah.simulation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.UUID;
+
+/**
+ * Simulation started through the REST API
+ */
+@AllArgsConstructor
+@Getter
+public class SimulationJob {
+    @NonNull
+    private UUID id;
+
+    @NonNull
+    private SimulationRun run;
+}
@@ -0,0 +1,73 @@
+package com.waes.palazares.kalah.simulation;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Command line entry point of the self-play simulation. Arguments are {@code name=value} pairs:
+ * {@code games, south, north, houses, seeds, depth, randomSeed} of {@link SimulationSettings} and {@code threads}.
+ * Run with {@code gradle simulate -PsimulationArgs="games=1000000 south=greedy"}
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public final class SimulationMain {
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        var values = new HashMap<String, String>();
+        for (var arg : args) {
+            var separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected name=value argument: " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        var defaults = new SimulationSettings();
+        var settings = new SimulationSettings(
+                Long.parseLong(values.getOrDefault("games", String.valueOf(defaults.getGames()))),
+                PolicyType.valueOf(values.getOrDefault("south", defaults.getSouth().name()).toUpperCase(Locale.ROOT)),
+                PolicyType.valueOf(values.getOrDefault("north", defaults.getNorth().name()).toUpperCase(Locale.ROOT)),
+                Integer.parseInt(values.getOrDefault("houses", String.valueOf(defaults.getHouses()))),
+                Integer.parseInt(values.getOrDefault("seeds", String.valueOf(defaults.getSeeds()))),
+                Boolean.parseBoolean(values.getOrDefault("emptyCapture", String.valueOf(defaults.isEmptyCapture()))),
+                Integer.parseInt(values.getOrDefault("depth", String.valueOf(defaults.getDepth()))),
+                Long.parseLong(values.getOrDefault("randomSeed", String.valueOf(defaults.getRandomSeed()))));
+        if (!settings.isValid(Long.MAX_VALUE)) {
+            throw new IllegalArgumentException("Invalid simulation settings: " + settings);
+        }
+        var threads = Integer.parseInt(values.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        log.info("Starting simulation {} on {} threads", settings, threads);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var run = Simulator.start(settings, executor, threads);
+            while (true) {
+                try {
+                    print("Final", run.getCompletion().get(1, TimeUnit.SECONDS));
+                    break;
+                } catch (TimeoutException e) {
+                    print("Progress", run.stats());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void print(String title, SimulationStats stats) {
+        log.info(String.format(Locale.ROOT,
+                "%s: games %d, south wins %.4f, north wins %.4f, draws %.4f, stuck %d, " +
+                        "average length %.2f, captures per move %.4f, extra turns per move %.4f, %.0f games/s",
+                title, stats.getGames(), stats.getSouthWinRate(), stats.getNorthWinRate(), stats.getDrawRate(),
+                stats.getStuckGames(), stats.getAverageLength(), stats.getCaptureRate(), stats.getExtraTurnRate(),
+                stats.getGamesPerSecond()));
+    }
+}
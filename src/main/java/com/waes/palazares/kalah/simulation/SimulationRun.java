@@ -0,0 +1,97 @@
+package com.waes.palazares.kalah.simulation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running simulation. Workers claim games in batches and add their counters after every batch,
+ * so statistics can be read at any time while the games are played
+ */
+public class SimulationRun {
+    private final SimulationSettings settings;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder southWins = new LongAdder();
+    private final LongAdder northWins = new LongAdder();
+    private final LongAdder stuckGames = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder captures = new LongAdder();
+    private final LongAdder extraTurns = new LongAdder();
+    private final long started = System.nanoTime();
+    private final CompletableFuture<SimulationStats> completion = new CompletableFuture<>();
+    private volatile long finished;
+    private volatile boolean cancelled;
+
+    SimulationRun(SimulationSettings settings) {
+        this.settings = settings;
+    }
+
+    public SimulationSettings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @return completed with the final statistics when all the games are played or the run is cancelled
+     */
+    public CompletableFuture<SimulationStats> getCompletion() {
+        return completion;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Stops the workers after their current batch
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return statistics of the games played so far
+     */
+    public SimulationStats stats() {
+        var played = games.sum();
+        var south = southWins.sum();
+        var north = northWins.sum();
+        var end = finished != 0 ? finished : System.nanoTime();
+        return new SimulationStats(played, south, north, played - south - north, stuckGames.sum(), moves.sum(),
+                captures.sum(), extraTurns.sum(), TimeUnit.NANOSECONDS.toMillis(end - started));
+    }
+
+    /**
+     * Claims the next batch of games
+     *
+     * @param batch number of games in a batch
+     * @return index of the first game of the batch, -1 when there are no games left
+     */
+    long claim(int batch) {
+        if (cancelled) {
+            return -1;
+        }
+        var first = claimed.getAndAdd(batch);
+        return first < settings.getGames() ? first : -1;
+    }
+
+    void add(SimulationWorker worker) {
+        games.add(worker.games);
+        southWins.add(worker.southWins);
+        northWins.add(worker.northWins);
+        stuckGames.add(worker.stuckGames);
+        moves.add(worker.moves);
+        captures.add(worker.captures);
+        extraTurns.add(worker.extraTurns);
+    }
+
+    void complete(Throwable error) {
+        finished = System.nanoTime();
+        if (error != null) {
+            completion.completeExceptionally(error);
+        } else {
+            completion.complete(stats());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.waes.palazares.kalah.exception.InavlidIdException;
+import com.waes.palazares.kalah.exception.InvalidSimulationException;
+import com.waes.palazares.kalah.exception.SimulationNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs self-play simulations as asynchronous jobs on a dedicated thread pool, isolated from the request threads.
+ * Every job uses all the threads of the pool, so jobs are played one after another.
+ * The latest jobs are kept for reading their statistics
+ */
+@Service
+@Slf4j
+public class SimulationService implements DisposableBean {
+    private final ExecutorService executor;
+    private final int threads;
+    private final long maxGames;
+    private final Cache<UUID, SimulationJob> jobs;
+
+    public SimulationService(@Value("${kalah.simulation.threads:0}") int threads,
+                             @Value("${kalah.simulation.max-games:100000000}") long maxGames,
+                             @Value("${kalah.simulation.max-jobs:100}") long maxJobs) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxGames = maxGames;
+        this.jobs = Caffeine.newBuilder().maximumSize(maxJobs).build();
+        var counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+            var thread = new Thread(runnable, "kalah-simulation-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a simulation
+     *
+     * @param settings simulation settings
+     * @return started job
+     */
+    public Mono<SimulationJob> start(SimulationSettings settings) {
+        log.debug("Start simulation request {}", settings);
+
+        if (settings == null || !settings.isValid(maxGames)) {
+            log.debug("Simulation request has invalid settings");
+            return Mono.error(new InvalidSimulationException());
+        }
+
+        var job = new SimulationJob(UUID.randomUUID(), Simulator.start(settings, executor, threads));
+        jobs.put(job.getId(), job);
+        job.getRun().getCompletion().whenComplete((x, e) -> log.debug("Simulation {} has been completed", job.getId()));
+        return Mono.just(job);
+    }
+
+    /**
+     * Finds a simulation
+     *
+     * @param simulationId simulation id
+     * @return simulation job
+     */
+    public Mono<SimulationJob> get(String simulationId) {
+        log.debug("Get request for simulation {}", simulationId);
+
+        UUID id;
+        try {
+            id = UUID.fromString(simulationId);
+        } catch (Exception e) {
+            log.debug("Request has simulation id not in UUID format");
+            return Mono.error(InavlidIdException.INSTANCE);
+        }
+
+        var job = jobs.getIfPresent(id);
+        return job == null ? Mono.error(new SimulationNotFoundException()) : Mono.just(job);
+    }
+
+    /**
+     * Streams statistics of a simulation until it is done, the last element has the final statistics
+     *
+     * @param simulationId simulation id
+     * @param interval     interval between the elements
+     * @return statistics of the games played so far
+     */
+    public Flux<SimulationStats> stats(String simulationId, Duration interval) {
+        return get(simulationId).flatMapMany(job -> {
+            var run = job.getRun();
+            return Flux.interval(Duration.ZERO, interval)
+                    .map(x -> run.isDone())
+                    .takeUntil(done -> done)
+                    .map(done -> done ? run.getCompletion().join() : run.stats());
+        });
+    }
+
+    /**
+     * Cancels a simulation, the workers stop after their current batch of games
+     *
+     * @param simulationId simulation id
+     * @return cancelled simulation job
+     */
+    public Mono<SimulationJob> cancel(String simulationId) {
+        return get(simulationId).doOnNext(job -> job.getRun().cancel());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
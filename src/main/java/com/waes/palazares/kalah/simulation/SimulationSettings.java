@@ -0,0 +1,71 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.domain.KalahVariant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Settings of a self-play simulation
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SimulationSettings {
+    public static final int MAX_DEPTH = 16;
+
+    /**
+     * Number of games to play
+     */
+    private long games = 100_000;
+
+    /**
+     * Policy of the south player, who makes the first move
+     */
+    private PolicyType south = PolicyType.RANDOM;
+
+    /**
+     * Policy of the north player
+     */
+    private PolicyType north = PolicyType.RANDOM;
+
+    /**
+     * Number of houses per side
+     */
+    private int houses = KalahVariant.DEFAULT.getHouses();
+
+    /**
+     * Number of seeds per house at the start
+     */
+    private int seeds = KalahVariant.DEFAULT.getSeeds();
+
+    /**
+     * Whether the last seed captures when the opposite house is empty
+     */
+    private boolean emptyCapture = KalahVariant.DEFAULT.isEmptyCapture();
+
+    /**
+     * Depth of the search policy in plies
+     */
+    private int depth = 4;
+
+    /**
+     * Seed of the random sources, the same seed and number of workers repeat the simulation
+     */
+    private long randomSeed = 42;
+
+    /**
+     * @param maxGames maximum number of games
+     * @return true if the simulation can be started
+     */
+    public boolean isValid(long maxGames) {
+        return games >= 1 && games <= maxGames && south != null && north != null &&
+                KalahVariant.isValid(houses, seeds) && depth >= 1 && depth <= MAX_DEPTH;
+    }
+
+    public KalahVariant variant() {
+        return KalahVariant.of(houses, seeds, emptyCapture);
+    }
+}
@@ -0,0 +1,26 @@
+package com.waes.palazares.kalah.simulation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Simulation representation with the statistics of the games played so far
+ */
+@AllArgsConstructor
+@Getter
+public class SimulationState {
+    @NonNull
+    private String id;
+
+    @NonNull
+    private String url;
+
+    private boolean done;
+
+    @NonNull
+    private SimulationSettings settings;
+
+    @NonNull
+    private SimulationStats stats;
+}
@@ -0,0 +1,73 @@
+package com.waes.palazares.kalah.simulation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Aggregate statistics of the played games
+ */
+@AllArgsConstructor
+@Getter
+public class SimulationStats {
+    private long games;
+
+    private long southWins;
+
+    private long northWins;
+
+    private long draws;
+
+    /**
+     * Games ended because north had no legal move with seeds left in the north store
+     */
+    private long stuckGames;
+
+    private long moves;
+
+    private long captures;
+
+    private long extraTurns;
+
+    private long elapsedMillis;
+
+    public double getSouthWinRate() {
+        return ratio(southWins, games);
+    }
+
+    public double getNorthWinRate() {
+        return ratio(northWins, games);
+    }
+
+    public double getDrawRate() {
+        return ratio(draws, games);
+    }
+
+    /**
+     * @return average number of moves per game
+     */
+    public double getAverageLength() {
+        return ratio(moves, games);
+    }
+
+    /**
+     * @return captures per move
+     */
+    public double getCaptureRate() {
+        return ratio(captures, moves);
+    }
+
+    /**
+     * @return moves giving another turn per move
+     */
+    public double getExtraTurnRate() {
+        return ratio(extraTurns, moves);
+    }
+
+    public double getGamesPerSecond() {
+        return ratio(games * 1000, elapsedMillis);
+    }
+
+    private static double ratio(long value, long total) {
+        return total == 0 ? 0 : (double) value / total;
+    }
+}
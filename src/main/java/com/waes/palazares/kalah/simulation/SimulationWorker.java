@@ -0,0 +1,99 @@
+package com.waes.palazares.kalah.simulation;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays batches of games of a simulation on one thread.
+ * The board, policies and counters are reused, so playing a game does not allocate.
+ * Every batch has its own random source derived from the index of its first game,
+ * so random and greedy simulations do not depend on the number of workers
+ */
+class SimulationWorker implements Runnable {
+    private static final int BATCH = 1024;
+
+    private final SimulationRun run;
+    private final KalahBoard board;
+    private final Policy south;
+    private final Policy north;
+    private final long randomSeed;
+    private SplittableRandom random;
+
+    long games;
+    long southWins;
+    long northWins;
+    long stuckGames;
+    long moves;
+    long captures;
+    long extraTurns;
+
+    SimulationWorker(SimulationRun run) {
+        var settings = run.getSettings();
+        var variant = settings.variant();
+        this.run = run;
+        this.board = new KalahBoard(variant);
+        this.south = settings.getSouth().create(variant, settings.getDepth());
+        this.north = settings.getNorth().create(variant, settings.getDepth());
+        this.randomSeed = settings.getRandomSeed();
+    }
+
+    @Override
+    public void run() {
+        var total = run.getSettings().getGames();
+        for (var first = run.claim(BATCH); first >= 0; first = run.claim(BATCH)) {
+            random = new SplittableRandom(randomSeed + first * 0x9E3779B97F4A7C15L);
+            games = 0;
+            southWins = 0;
+            northWins = 0;
+            stuckGames = 0;
+            moves = 0;
+            captures = 0;
+            extraTurns = 0;
+            for (var i = first; i < Math.min(first + BATCH, total); i++) {
+                play();
+            }
+            run.add(this);
+        }
+    }
+
+    private void play() {
+        board.reset();
+        var southStore = board.getSouthStore();
+        var northStore = board.getNorthStore();
+        while (board.getState() != GameState.FINISHED) {
+            if (!hasLegalMove()) {
+                stuckGames++;
+                break;
+            }
+            var policy = board.getState() == GameState.SOUTH_TURN ? south : north;
+            board.move(policy.choose(board, random));
+            moves++;
+            if (board.getLastCapture() > 0) {
+                captures++;
+            }
+            if (board.getLastPit() == southStore || board.getLastPit() == northStore) {
+                extraTurns++;
+            }
+        }
+
+        games++;
+        var difference = board.get(southStore) - board.get(northStore);
+        if (difference > 0) {
+            southWins++;
+        } else if (difference < 0) {
+            northWins++;
+        }
+    }
+
+    private boolean hasLegalMove() {
+        var first = board.firstPitId();
+        for (int pit = first; pit < first + board.getHouses(); pit++) {
+            if (board.isLegal(pit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
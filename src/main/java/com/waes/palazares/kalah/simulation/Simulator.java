@@ -0,0 +1,31 @@
+package com.waes.palazares.kalah.simulation;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts self-play simulations on the given executor
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Simulator {
+    /**
+     * Starts the simulation with one worker per thread of the executor
+     *
+     * @param settings valid simulation settings
+     * @param executor executor of the workers
+     * @param workers  number of workers
+     * @return running simulation
+     */
+    public static SimulationRun start(SimulationSettings settings, Executor executor, int workers) {
+        var run = new SimulationRun(settings);
+        var futures = new CompletableFuture[workers];
+        for (int i = 0; i < workers; i++) {
+            futures[i] = CompletableFuture.runAsync(new SimulationWorker(run), executor);
+        }
+        CompletableFuture.allOf(futures).whenComplete((x, e) -> run.complete(e));
+        return run;
+    }
+}
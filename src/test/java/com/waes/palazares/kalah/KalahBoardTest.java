@@ -0,0 +1,108 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KalahBoardTest {
+
+    @Test
+    public void shouldSowFullLapsAndRemainder() {
+        //given
+        var status = new int[]{0, 0, 0, 0, 0, 16, 0, 0, 0, 0, 0, 0, 0, 0};
+        var board = new KalahBoard().load(status, GameState.SOUTH_TURN);
+        //when
+        board.move(6);
+        //then
+        assertArrayEquals(new int[]{1, 1, 1, 1, 1, 1, 2, 2, 1, 1, 1, 1, 1, 1}, board.toStatus());
+        assertEquals(6, board.getSouthHouses());
+        assertEquals(7, board.getNorthHouses());
+        assertEquals(7, board.getLastPit());
+        assertEquals(GameState.NORTH_TURN, board.getState());
+    }
+
+    @Test
+    public void shouldKeepTotalsAfterCapture() {
+        //given
+        var status = new int[]{6, 2, 6, 0, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var board = new KalahBoard().load(status, GameState.SOUTH_TURN);
+        //when
+        board.move(2);
+        //then
+        assertArrayEquals(new int[]{6, 0, 7, 0, 6, 6, 7, 6, 6, 0, 6, 6, 6, 0}, board.toStatus());
+        assertEquals(25, board.getSouthHouses());
+        assertEquals(30, board.getNorthHouses());
+    }
+
+    @Test
+    public void shouldNotCaptureWhenNorthEndsInOwnEmptyStore() {
+        //given
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 1, 0};
+        var board = new KalahBoard().load(status, GameState.NORTH_TURN);
+        //when
+        board.move(13);
+        //then
+        assertArrayEquals(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 0, 1}, board.toStatus());
+        assertEquals(GameState.NORTH_TURN, board.getState());
+    }
+
+    @Test
+    public void shouldCheckLegalMoves() {
+        //given
+        var status = new int[]{0, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var board = new KalahBoard().load(status, GameState.SOUTH_TURN);
+        //then
+        assertFalse(board.isLegal(1));
+        assertTrue(board.isLegal(2));
+        assertFalse(board.isLegal(7));
+        assertFalse(board.isLegal(8));
+        assertFalse(board.isLegal(0));
+    }
+
+    @Test
+    public void shouldFinishWhenSouthHousesAreEmpty() {
+        //given
+        var status = new int[]{0, 0, 0, 0, 0, 1, 34, 1, 1, 1, 1, 1, 1, 31};
+        var board = new KalahBoard().load(status, GameState.SOUTH_TURN);
+        //when
+        board.move(6);
+        //then
+        assertTrue(board.isFinished());
+        assertEquals(GameState.FINISHED, board.getState());
+    }
+
+    @Test
+    public void shouldResetAndCaptureOnVariantBoard() {
+        //given
+        var board = new KalahBoard(KalahVariant.of(4, 3)).reset();
+        //when
+        board.move(2);
+        board.move(3);
+        board.move(9);
+        board.move(2);
+        //then
+        assertArrayEquals(new int[]{4, 0, 0, 5, 7, 4, 0, 3, 0, 1}, board.toStatus());
+        assertEquals(5, board.getLastCapture());
+        assertEquals(GameState.NORTH_TURN, board.getState());
+        assertEquals(9, board.getSouthHouses());
+        assertEquals(7, board.getNorthHouses());
+    }
+
+    @Test
+    public void shouldNotCaptureEmptyOppositeHouseWithoutEmptyCapture() {
+        //given
+        var status = new int[]{6, 1, 0, 6, 6, 6, 0, 6, 6, 6, 0, 6, 6, 0};
+        var board = new KalahBoard(KalahVariant.of(6, 6, false)).load(status, GameState.SOUTH_TURN);
+        //when
+        board.move(2);
+        //then
+        assertArrayEquals(new int[]{6, 0, 1, 6, 6, 6, 0, 6, 6, 6, 0, 6, 6, 0}, board.toStatus());
+        assertEquals(0, board.getLastCapture());
+        assertEquals(GameState.NORTH_TURN, board.getState());
+    }
+}
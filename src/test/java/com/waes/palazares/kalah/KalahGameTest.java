@@ -172,4 +172,28 @@ public class KalahGameTest {
         assertEquals(GameState.FINISHED, resultGame.getState());
         Assert.assertArrayEquals(new int[]{0, 0, 0, 0, 0, 0, 35, 1, 1, 1, 1, 1, 1, 31}, resultGame.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldHaveLegalMovesOfThePlayerToMove() {
+        //given
+        var id = UUID.randomUUID();
+        var status = new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 0, 6, 6, 6, 0};
+        var south = new KalahGameRecord(id, status, GameState.SOUTH_TURN);
+        var north = new KalahGameRecord(id, status, GameState.NORTH_TURN);
+        var finished = new KalahGameRecord(id, status, GameState.FINISHED);
+        //when
+        var southMoves = south.getLegalMoves();
+        var northMoves = north.getLegalMoves();
+        var finishedMoves = finished.getLegalMoves();
+        //then
+        assertEquals(0b1111100, southMoves);
+        assertEquals(0b11101100000000, northMoves);
+        assertEquals(0, finishedMoves);
+        Assert.assertTrue(south.isLegalMove(2));
+        Assert.assertFalse(south.isLegalMove(1));
+        Assert.assertFalse(south.isLegalMove(8));
+        Assert.assertFalse(north.isLegalMove(10));
+        Assert.assertFalse(north.isLegalMove(-1));
+        Assert.assertFalse(north.isLegalMove(Integer.SIZE));
+    }
+}
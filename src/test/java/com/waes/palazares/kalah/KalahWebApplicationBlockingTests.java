@@ -0,0 +1,66 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.KalahGameState;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=servlet")
+@ActiveProfiles({"memory", "blocking"})
+public class KalahWebApplicationBlockingTests {
+    @LocalServerPort
+    private int localPort;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Test
+    public void shouldPlayGameWithBlockingStack() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games";
+
+        //when
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putUrl = postResponse.getBody().getUrl() + "/pits/1";
+        var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, KalahGameState.class);
+        var getResponse = testRestTemplate.exchange(postResponse.getBody().getUrl(), HttpMethod.GET, HttpEntity.EMPTY, KalahGameState.class);
+
+        //then
+        assertEquals(HttpStatus.CREATED, postResponse.getStatusCode());
+        assertEquals(postUrl + "/" + postResponse.getBody().getId(), postResponse.getBody().getUrl());
+        assertEquals(HttpStatus.OK, putResponse.getStatusCode());
+        assertEquals(Integer.valueOf(0), putResponse.getBody().getStatus().get(1));
+        assertEquals(HttpStatus.OK, getResponse.getStatusCode());
+        assertNotNull(getResponse.getHeaders().getETag());
+        assertEquals(putResponse.getBody().getStatus(), getResponse.getBody().getStatus());
+    }
+
+    @Test
+    public void shouldReturnErrorStatusOfServiceException() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games";
+        var missingUrl = postUrl + "/" + UUID.randomUUID();
+
+        //when
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putResponse = testRestTemplate.exchange(postResponse.getBody().getUrl() + "/pits/7", HttpMethod.PUT, HttpEntity.EMPTY, String.class);
+        var getResponse = testRestTemplate.exchange(missingUrl, HttpMethod.GET, HttpEntity.EMPTY, String.class);
+
+        //then
+        assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
+    }
+}
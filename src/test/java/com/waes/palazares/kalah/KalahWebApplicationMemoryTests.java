@@ -0,0 +1,49 @@
+package com.waes.palazares.kalah;
+
+import com.waes.palazares.kalah.domain.KalahGameState;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahGameRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("memory")
+public class KalahWebApplicationMemoryTests {
+    @LocalServerPort
+    private int localPort;
+
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @Autowired
+    private KalahGameRepository repository;
+
+    @Test
+    public void shouldPlayGameWithInMemoryStorage() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games";
+
+        //when
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putUrl = postResponse.getBody().getUrl() + "/pits/1";
+        var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, KalahGameState.class);
+
+        //then
+        assertTrue(repository instanceof InMemoryKalahGameRepository);
+        assertEquals(HttpStatus.CREATED, postResponse.getStatusCode());
+        assertEquals(HttpStatus.OK, putResponse.getStatusCode());
+        assertEquals(Integer.valueOf(0), putResponse.getBody().getStatus().get(1));
+    }
+}
@@ -18,7 +18,7 @@ import java.util.UUID;
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.main.web-application-type=reactive")
 public class KalahWebApplicationTests {
     @LocalServerPort
     private int localPort;
@@ -120,13 +120,13 @@ public class KalahWebApplicationTests {
         assertNotNull(putResponse);
         assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
         assertNotNull(putResponse.getBody());
-        assertEquals("Invalid pitId. Should be in [1-6,8-13] range", putResponse.getBody().get("message"));
+        assertEquals("Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board", putResponse.getBody().get("message"));
     }
 
     @Test
     public void shouldReturnBadRequestWhenOutOfRangePitId() {
         //given
-        var putUrl = "http://localhost:" + localPort + "/games/" + UUID.randomUUID().toString() + "/pits/15";
+        var putUrl = "http://localhost:" + localPort + "/games/" + UUID.randomUUID().toString() + "/pits/27";
 
         //when
         var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, LinkedHashMap.class);
@@ -134,13 +134,45 @@ public class KalahWebApplicationTests {
         assertNotNull(putResponse);
         assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
         assertNotNull(putResponse.getBody());
-        assertEquals("Invalid pitId. Should be in [1-6,8-13] range", putResponse.getBody().get("message"));
+        assertEquals("Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board", putResponse.getBody().get("message"));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenZeroPitId() {
+        //given
+        var putUrl = "http://localhost:" + localPort + "/games/" + UUID.randomUUID().toString() + "/pits/0";
+
+        //when
+        var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, LinkedHashMap.class);
+        //then
+        assertNotNull(putResponse);
+        assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
+        assertNotNull(putResponse.getBody());
+        assertEquals("Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board", putResponse.getBody().get("message"));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenPitIdIsBeyondGameBoard() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games";
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putUrl = postResponse.getBody().getUrl() + "/pits/15";
+
+        //when
+        var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, LinkedHashMap.class);
+        //then
+        assertNotNull(putResponse);
+        assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
+        assertNotNull(putResponse.getBody());
+        assertEquals("Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board", putResponse.getBody().get("message"));
     }
 
     @Test
     public void shouldReturnBadRequestWhenNotAllowedPitId() {
         //given
-        var putUrl = "http://localhost:" + localPort + "/games/" + UUID.randomUUID().toString() + "/pits/7";
+        var postUrl = "http://localhost:" + localPort + "/games";
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putUrl = postResponse.getBody().getUrl() + "/pits/7";
 
         //when
         var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, LinkedHashMap.class);
@@ -148,7 +180,36 @@ public class KalahWebApplicationTests {
         assertNotNull(putResponse);
         assertEquals(HttpStatus.BAD_REQUEST, putResponse.getStatusCode());
         assertNotNull(putResponse.getBody());
-        assertEquals("Invalid pitId. Should be in [1-6,8-13] range", putResponse.getBody().get("message"));
+        assertEquals("Invalid pitId. Should be a house of the game board, [1-6,8-13] for the default board", putResponse.getBody().get("message"));
+    }
+
+    @Test
+    public void shouldMoveFromPitSevenOnLargerBoard() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games?houses=8&seeds=4";
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, KalahGameState.class);
+        var putUrl = postResponse.getBody().getUrl() + "/pits/7";
+
+        //when
+        var putResponse = testRestTemplate.exchange(putUrl, HttpMethod.PUT, HttpEntity.EMPTY, KalahGameState.class);
+        //then
+        assertNotNull(putResponse);
+        assertEquals(HttpStatus.OK, putResponse.getStatusCode());
+        assertNotNull(putResponse.getBody());
+        assertEquals(18, putResponse.getBody().getStatus().size());
+        assertEquals(Integer.valueOf(0), putResponse.getBody().getStatus().get(7));
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenInvalidVariant() {
+        //given
+        var postUrl = "http://localhost:" + localPort + "/games?houses=13";
+
+        //when
+        var postResponse = testRestTemplate.exchange(postUrl, HttpMethod.POST, HttpEntity.EMPTY, LinkedHashMap.class);
+        //then
+        assertNotNull(postResponse);
+        assertEquals(HttpStatus.BAD_REQUEST, postResponse.getStatusCode());
     }
 
     @Test
@@ -0,0 +1,97 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class KalahSearchTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final KalahSearch search = new KalahSearch(10);
+
+    @Test
+    public void shouldPreferExtraTurnMove() {
+        //given
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        //when
+        var result = search.search(status, GameState.SOUTH_TURN, 1, SECOND);
+        //then
+        assertEquals(1, result.getPitId());
+        assertEquals(1, result.getScore());
+        assertEquals(1, result.getDepth());
+    }
+
+    @Test
+    public void shouldSolveCaptureEndgame() {
+        //given
+        var status = new int[]{2, 0, 0, 0, 1, 0, 10, 9, 1, 0, 0, 0, 0, 10};
+        //when
+        var result = search.search(status, GameState.SOUTH_TURN, KalahSearch.MAX_DEPTH, SECOND);
+        //then
+        assertEquals(5, result.getPitId());
+        assertEquals(10, result.getScore());
+        assertTrue(result.getDepth() < KalahSearch.MAX_DEPTH);
+    }
+
+    @Test
+    public void shouldReturnNoMoveWhenNorthHasOnlyStoreSeeds() {
+        //given
+        var status = new int[]{5, 5, 5, 0, 0, 0, 10, 0, 0, 0, 0, 0, 0, 10};
+        //when
+        var result = search.search(status, GameState.NORTH_TURN, KalahSearch.MAX_DEPTH, SECOND);
+        //then
+        assertEquals(-1, result.getPitId());
+    }
+
+    @Test
+    public void shouldReturnNoMoveWhenGameIsFinished() {
+        //given
+        var status = new int[]{0, 0, 0, 0, 0, 0, 40, 1, 1, 1, 1, 1, 1, 26};
+        //when
+        var result = search.search(status, GameState.FINISHED, KalahSearch.MAX_DEPTH, SECOND);
+        //then
+        assertEquals(-1, result.getPitId());
+        assertEquals(14, result.getScore());
+    }
+
+    @Test
+    public void shouldCompleteFirstIterationWithoutTime() {
+        //given
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        //when
+        var result = search.search(status, GameState.SOUTH_TURN, KalahSearch.MAX_DEPTH, 0);
+        //then
+        assertTrue(result.getPitId() >= 1 && result.getPitId() <= 6);
+        assertTrue(result.getDepth() >= 1);
+    }
+
+    @Test
+    public void shouldHashPositionsWithMoreSeedsInPitThanBefore() {
+        //given
+        var variant = KalahVariant.of(12, 12);
+        var status = new int[KalahVariant.MAX_PITS];
+        for (int i = 0; i < 12; i++) {
+            status[i] = 6;
+            status[i + 13] = 6;
+        }
+        status[12] = 130;
+        status[25] = 10;
+        var first = new KalahBoard(variant).load(status, GameState.SOUTH_TURN);
+        status[12] = 2;
+        status[25] = 138;
+        var second = new KalahBoard(variant).load(status, GameState.SOUTH_TURN);
+        //when
+        var firstKey = KalahSearch.hash(first);
+        var secondKey = KalahSearch.hash(second);
+        //then
+        assertNotEquals(firstKey, secondKey);
+    }
+}
@@ -0,0 +1,57 @@
+package com.waes.palazares.kalah.ai;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class ParallelKalahAiTest {
+    private final ParallelKalahAi ai = new ParallelKalahAi(3, KalahSearch.MAX_DEPTH, 1000, 12);
+
+    @After
+    public void tearDown() {
+        ai.destroy();
+    }
+
+    @Test
+    public void shouldSolveCaptureEndgameOnAllThreads() {
+        //given
+        var status = new int[]{2, 0, 0, 0, 1, 0, 10, 9, 1, 0, 0, 0, 0, 10};
+        var game = new KalahGameRecord(UUID.randomUUID(), status, GameState.SOUTH_TURN);
+        //when
+        var result = ai.bestMove(game, null, null).join();
+        //then
+        assertEquals(5, result.getPitId());
+        assertEquals(10, result.getScore());
+    }
+
+    @Test
+    public void shouldRespectRequestedDepth() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        var result = ai.bestMove(game, 3, null).join();
+        //then
+        assertTrue(result.getPitId() >= 1 && result.getPitId() <= 6);
+        assertEquals(3, result.getDepth());
+    }
+
+    @Test
+    public void shouldReadOnlyStoredEntries() {
+        //given
+        var table = new TranspositionTable(4);
+        //when
+        table.put(42, 7);
+        //then
+        assertEquals(7, table.get(42));
+        assertEquals(0, table.get(42 + 16));
+    }
+}
@@ -0,0 +1,92 @@
+package com.waes.palazares.kalah.cache;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KalahGameCacheTest {
+    @Mock
+    private KalahGameRepository repository;
+
+    private KalahGameCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new KalahGameCache(repository, new KalahGameMetrics(new SimpleMeterRegistry()), 100, 60, 86400, 604800);
+    }
+
+    @Test
+    public void shouldLoadFromRepositoryOnlyOnce() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when
+        StepVerifier.create(cache.findById(gameId)).expectNext(game).verifyComplete();
+        StepVerifier.create(cache.findById(gameId)).expectNext(game).verifyComplete();
+        //then
+        verify(repository, times(1)).findById(eq(gameId));
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    public void shouldServeSavedGameWithoutLoading() {
+        //given
+        var game = new KalahGameRecord();
+        when(repository.save(any())).thenReturn(Mono.just(game));
+        //when
+        StepVerifier.create(cache.save(game)).expectNext(game).verifyComplete();
+        StepVerifier.create(cache.findById(game.getId())).expectNext(game).verifyComplete();
+        //then
+        verify(repository, times(0)).findById(any(UUID.class));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldLoadFromRepositoryAfterInvalidate() {
+        //given
+        var game = new KalahGameRecord();
+        when(repository.save(any())).thenReturn(Mono.just(game));
+        when(repository.findById(eq(game.getId()))).thenReturn(Mono.just(game));
+        //when
+        StepVerifier.create(cache.save(game)).expectNext(game).verifyComplete();
+        cache.invalidate(game.getId());
+        StepVerifier.create(cache.findById(game.getId())).expectNext(game).verifyComplete();
+        //then
+        verify(repository, times(1)).findById(eq(game.getId()));
+    }
+
+    @Test
+    public void shouldSaveGameWithExpiration() {
+        //given
+        var game = new KalahGameRecord();
+        var finished = new KalahGameRecord(UUID.randomUUID(), new int[]{0, 0, 0, 0, 0, 0, 36, 0, 0, 0, 0, 0, 0, 36}, GameState.FINISHED);
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when, then
+        StepVerifier.create(cache.save(game))
+                .expectNextMatches(x -> x.getExpireAt().equals(game.getCreatedAt().plusSeconds(604800)))
+                .verifyComplete();
+        StepVerifier.create(cache.save(finished))
+                .expectNextMatches(x -> x.getExpireAt().equals(finished.getCreatedAt().plusSeconds(86400)))
+                .verifyComplete();
+    }
+}
@@ -1,23 +1,37 @@
 package com.waes.palazares.kalah.controller;
 
 import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahBestMoveResult;
+import com.waes.palazares.kalah.domain.KalahEvaluationResult;
+import com.waes.palazares.kalah.domain.KalahGameCompactState;
+import com.waes.palazares.kalah.domain.KalahGamePageResult;
 import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahMovesResult;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import com.waes.palazares.kalah.exception.InvalidMoveException;
 import com.waes.palazares.kalah.service.KalahGameServiceImpl;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.hamcrest.Matchers.endsWith;
 import static org.mockito.Mockito.*;
 
 @RunWith(SpringRunner.class)
 @WebFluxTest(controllers = KalahGameController.class)
+@Import(KalahGameHandler.class)
 public class KalahGameControllerTest {
     @Autowired
     private WebTestClient client;
@@ -33,7 +47,7 @@ public class KalahGameControllerTest {
         var state = GameState.SOUTH_TURN;
         var game = new KalahGameRecord(id, status, state);
         //when
-        when(service.create()).thenReturn(Mono.just(game));
+        when(service.create(null, null, null)).thenReturn(Mono.just(game));
         //then
         client
                 .post()
@@ -42,7 +56,104 @@ public class KalahGameControllerTest {
                 .expectStatus().isCreated()
                 .expectBody().jsonPath("id").isEqualTo(id.toString())
                 .jsonPath("url").isNotEmpty();
-        verify(service, times(1)).create();
+        verify(service, times(1)).create(null, null, null);
+    }
+
+    @Test
+    public void shouldPassVariantWhenPostGameWithVariant() {
+        //given
+        var game = new KalahGameRecord(KalahVariant.of(4, 3, false));
+        //when
+        when(service.create(4, 3, false)).thenReturn(Mono.just(game));
+        //then
+        client
+                .post()
+                .uri("/games?houses=4&seeds=3&emptyCapture=false")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("url").value(endsWith("/games/" + game.getId()))
+                .jsonPath("status.10").isEqualTo(0)
+                .jsonPath("status.11").doesNotExist();
+        verify(service, times(1)).create(4, 3, false);
+    }
+
+    @Test
+    public void shouldCallServiceWhenPostGames() {
+        //given
+        var first = new KalahGameRecord();
+        var second = new KalahGameRecord();
+        //when
+        when(service.createAll(2)).thenReturn(Flux.just(first, second));
+        //then
+        client
+                .post()
+                .uri("/games/bulk?count=2")
+                .accept(MediaType.APPLICATION_STREAM_JSON)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(Map.class)
+                .hasSize(2);
+        verify(service, times(1)).createAll(2);
+    }
+
+    @Test
+    public void shouldReturnGameWithETag() {
+        //given
+        var game = new KalahGameRecord(UUID.randomUUID(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN, 3L);
+        //when
+        when(service.get(any())).thenReturn(Mono.just(game));
+        //then
+        client
+                .get()
+                .uri("/games/" + game.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("ETag", "\"3-[0-9a-f]+;application/json\"")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("url").value(endsWith("/games/" + game.getId()))
+                .jsonPath("status").isMap();
+        verify(service, times(1)).get(eq(game.getId().toString()));
+    }
+
+    @Test
+    public void shouldReturnNotModifiedWhenETagMatches() {
+        //given
+        var game = new KalahGameRecord(UUID.randomUUID(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN, 3L);
+        when(service.get(any())).thenReturn(Mono.just(game));
+        var etag = client.get().uri("/games/" + game.getId()).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        //when, then
+        client
+                .get()
+                .uri("/games/" + game.getId())
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    public void shouldReturnCompactGameWhenETagOfOtherRepresentationMatches() {
+        //given
+        var game = new KalahGameRecord(UUID.randomUUID(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN, 3L);
+        when(service.get(any())).thenReturn(Mono.just(game));
+        var etag = client.get().uri("/games/" + game.getId()).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseHeaders().getETag();
+        //when, then
+        client
+                .get()
+                .uri("/games/" + game.getId())
+                .accept(MediaType.valueOf(KalahGameCompactState.MEDIA_TYPE))
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("ETag", "\"3-[0-9a-f]+;application/vnd.kalah.compact\\+json\"")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody().jsonPath("status").isArray();
     }
 
     @Test
@@ -66,6 +177,199 @@ public class KalahGameControllerTest {
         verify(service, times(1)).move(eq("1"), eq("1"));
     }
 
+    @Test
+    public void shouldReturnPitsMapWhenPutMove() {
+        //given
+        var id = UUID.randomUUID();
+        var status = new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(id, status, GameState.SOUTH_TURN);
+        //when
+        when(service.move(any(), any())).thenReturn(Mono.just(game));
+        //then
+        client
+                .put()
+                .uri("/games/1/pits/1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("status.1").isEqualTo(0)
+                .jsonPath("status.7").isEqualTo(1)
+                .jsonPath("status.14").isEqualTo(0);
+    }
+
+    @Test
+    public void shouldReturnCompactStateWhenPutMoveAcceptsCompact() {
+        //given
+        var id = UUID.randomUUID();
+        var status = new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(id, status, GameState.SOUTH_TURN);
+        //when
+        when(service.move(any(), any())).thenReturn(Mono.just(game));
+        //then
+        client
+                .put()
+                .uri("/games/1/pits/1")
+                .accept(MediaType.valueOf(KalahGameCompactState.MEDIA_TYPE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(KalahGameCompactState.MEDIA_TYPE)
+                .expectBody()
+                .jsonPath("id").isEqualTo(id.toString())
+                .jsonPath("status").isArray()
+                .jsonPath("status[0]").isEqualTo(0)
+                .jsonPath("status[6]").isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReturnCompactStateWhenPostGameAcceptsCompact() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        when(service.create(null, null, null)).thenReturn(Mono.just(game));
+        //then
+        client
+                .post()
+                .uri("/games")
+                .accept(MediaType.valueOf(KalahGameCompactState.MEDIA_TYPE))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("status").isArray();
+    }
+
+    @Test
+    public void shouldCallServiceWhenPutMoves() {
+        //given
+        var id = UUID.randomUUID();
+        var status = new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0};
+        var state = GameState.SOUTH_TURN;
+        var game = new KalahGameRecord(id, status, state);
+        //when
+        when(service.moves(any(), any())).thenReturn(Mono.just(new KalahMovesResult(game, 1, new InvalidMoveException())));
+        //then
+        client
+                .put()
+                .uri("/games/1/pits")
+                .syncBody(List.of(1, 1))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("game.id").isEqualTo(id.toString())
+                .jsonPath("game.status").isMap()
+                .jsonPath("failedMoveIndex").isEqualTo(1)
+                .jsonPath("failure").isEqualTo("PitId conflicts current game state");
+        verify(service, times(1)).moves(eq("1"), eq(List.of(1, 1)));
+    }
+
+    @Test
+    public void shouldStreamGameEvents() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        when(service.events(any())).thenReturn(Flux.just(game));
+        //then
+        client
+                .get()
+                .uri("/games/" + game.getId() + "/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBodyList(Map.class)
+                .hasSize(1);
+        verify(service, times(1)).events(eq(game.getId().toString()));
+    }
+
+    @Test
+    public void shouldCallServiceWhenPostAiMove() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        when(service.aiMove(any(), any(), any())).thenReturn(Mono.just(game));
+        //then
+        client
+                .post()
+                .uri("/games/" + game.getId() + "/ai-move?depth=4&timeMillis=20")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("url").value(endsWith("/games/" + game.getId()));
+        verify(service, times(1)).aiMove(eq(game.getId().toString()), eq(4), eq(20));
+    }
+
+    @Test
+    public void shouldReturnBestMove() {
+        //given
+        var game = new KalahGameRecord();
+        var result = new KalahBestMoveResult(game, 1, 2, 12, 1000);
+        //when
+        when(service.bestMove(any(), any(), any())).thenReturn(Mono.just(result));
+        //then
+        client
+                .get()
+                .uri("/games/" + game.getId() + "/best-move?depth=12")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("pitId").isEqualTo(1)
+                .jsonPath("score").isEqualTo(2)
+                .jsonPath("depth").isEqualTo(12);
+        verify(service, times(1)).bestMove(eq(game.getId().toString()), eq(12), isNull());
+    }
+
+    @Test
+    public void shouldReturnEvaluation() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        when(service.evaluate(any())).thenReturn(Mono.just(new KalahEvaluationResult(game, -3, true)));
+        //then
+        client
+                .get()
+                .uri("/games/" + game.getId() + "/evaluation")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("score").isEqualTo(-3)
+                .jsonPath("exact").isEqualTo(true);
+        verify(service, times(1)).evaluate(eq(game.getId().toString()));
+    }
+
+    @Test
+    public void shouldReturnReplayedGame() {
+        //given
+        var game = new KalahGameRecord();
+        //when
+        when(service.replay(any(), any())).thenReturn(Mono.just(game));
+        //then
+        client
+                .get()
+                .uri("/games/" + game.getId() + "/replay?moveCount=0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("id").isEqualTo(game.getId().toString())
+                .jsonPath("status.1").isEqualTo(6);
+        verify(service, times(1)).replay(eq(game.getId().toString()), eq(0L));
+    }
+
+    @Test
+    public void shouldReturnNextPageLinkWhenListGames() {
+        //given
+        var game = new KalahGameRecord();
+        when(service.list(any(), any(), any())).thenReturn(Mono.just(new KalahGamePageResult(List.of(game), game.getId())));
+        //then
+        client
+                .get()
+                .uri("/games?state=SOUTH_TURN&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("games[0].id").isEqualTo(game.getId().toString())
+                .jsonPath("next").value(endsWith("/games?state=SOUTH_TURN&size=1&after=" + game.getId()));
+        verify(service, times(1)).list(eq("SOUTH_TURN"), isNull(), eq(1));
+    }
+
     @Test
     public void shouldRedirectToSwaggerUI() {
         client.get().uri("/").exchange()
@@ -0,0 +1,66 @@
+package com.waes.palazares.kalah.controller;
+
+import com.waes.palazares.kalah.exception.SimulationNotFoundException;
+import com.waes.palazares.kalah.simulation.PolicyType;
+import com.waes.palazares.kalah.simulation.SimulationJob;
+import com.waes.palazares.kalah.simulation.SimulationService;
+import com.waes.palazares.kalah.simulation.SimulationSettings;
+import com.waes.palazares.kalah.simulation.Simulator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@RunWith(SpringRunner.class)
+@WebFluxTest(controllers = SimulationController.class)
+public class SimulationControllerTest {
+    @Autowired
+    private WebTestClient client;
+
+    @MockBean
+    private SimulationService service;
+
+    @Test
+    public void shouldStartSimulation() {
+        //given
+        // a run without workers is done at once
+        var job = new SimulationJob(UUID.randomUUID(), Simulator.start(new SimulationSettings(), Runnable::run, 0));
+        //when
+        when(service.start(any())).thenReturn(Mono.just(job));
+        //then
+        client
+                .post()
+                .uri("/simulations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .syncBody(Map.of("games", 10, "south", "GREEDY"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody().jsonPath("id").isEqualTo(job.getId().toString())
+                .jsonPath("done").isEqualTo(true)
+                .jsonPath("settings.games").isEqualTo(100000)
+                .jsonPath("stats.games").isEqualTo(0);
+        verify(service, times(1)).start(argThat(x -> x.getGames() == 10 && x.getSouth() == PolicyType.GREEDY));
+    }
+
+    @Test
+    public void shouldReturnNotFoundWhenSimulationIsMissing() {
+        //when
+        when(service.get(any())).thenReturn(Mono.error(new SimulationNotFoundException()));
+        //then
+        client
+                .get()
+                .uri("/simulations/" + UUID.randomUUID())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,67 @@
+package com.waes.palazares.kalah.endgame;
+
+import com.waes.palazares.kalah.KalahBoard;
+import com.waes.palazares.kalah.domain.GameState;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class KalahEndgameTableTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestorePositionsByIndex() {
+        //given
+        var index = new EndgameIndex(72, 3);
+        var status = new int[KalahBoard.PITS];
+        var board = new KalahBoard();
+        for (long i = 0; i < index.size(); i++) {
+            //when
+            var state = index.decode(i, status);
+            //then
+            assertEquals(i, index.indexOf(board.load(status, state)));
+        }
+    }
+
+    @Test
+    public void shouldNotIndexPositionsWithMoreSeeds() {
+        //given
+        var index = new EndgameIndex(72, 3);
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        //then
+        assertEquals(-1, index.indexOf(new KalahBoard().load(status, GameState.SOUTH_TURN)));
+    }
+
+    @Test
+    public void shouldLookupGeneratedValues() throws IOException {
+        //given
+        var index = new EndgameIndex(72, 4);
+        var values = new EndgameTableGenerator(index).generate();
+        var path = folder.newFile("endgame.bin").toPath();
+        EndgameTableGenerator.write(path, index, values);
+        //when
+        var table = new KalahEndgameTable(path.toString());
+        //then
+        assertTrue(table.isEnabled());
+        // south captures 3 seeds with the last one and finishes the game 37:35
+        assertEquals(2, table.lookup(new int[]{0, 0, 0, 0, 1, 0, 33, 3, 0, 0, 0, 0, 0, 35}, GameState.SOUTH_TURN));
+        assertEquals(KalahEndgameTable.UNKNOWN, table.lookup(new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN));
+    }
+
+    @Test
+    public void shouldBeDisabledWithoutFile() {
+        //given
+        var table = new KalahEndgameTable("");
+        //then
+        assertFalse(table.isEnabled());
+        assertEquals(KalahEndgameTable.UNKNOWN, table.lookup(new int[KalahBoard.PITS], GameState.SOUTH_TURN));
+    }
+}
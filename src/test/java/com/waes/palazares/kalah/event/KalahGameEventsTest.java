@@ -0,0 +1,48 @@
+package com.waes.palazares.kalah.event;
+
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class KalahGameEventsTest {
+
+    @Test
+    public void shouldDeliverPublishedGamesToSubscribers() {
+        //given
+        var events = new KalahGameEvents(60);
+        var id = UUID.randomUUID();
+        var first = new KalahGameRecord(id, new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+        var second = new KalahGameRecord(id, new int[]{0, 0, 8, 8, 8, 8, 2, 7, 7, 6, 6, 6, 6, 0}, GameState.NORTH_TURN);
+        //when, then
+        StepVerifier.create(events.subscribe(id))
+                .then(() -> events.publish(first))
+                .expectNext(first)
+                .then(() -> events.publish(new KalahGameRecord()))
+                .then(() -> events.publish(second))
+                .expectNext(second)
+                .thenCancel()
+                .verify();
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void shouldCompleteIdleSubscribers() {
+        //given
+        var events = new KalahGameEvents(1);
+        var id = UUID.randomUUID();
+        //when, then
+        StepVerifier.create(events.subscribe(id))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0, events.size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.waes.palazares.kalah.history;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahGameSnapshot;
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import com.waes.palazares.kalah.exception.MoveLogNotFoundException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameSnapshotRepository;
+import com.waes.palazares.kalah.repository.KalahMoveEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class KalahGameHistoryTest {
+    @Mock
+    private KalahMoveEventRepository moveRepository;
+
+    @Mock
+    private KalahGameSnapshotRepository snapshotRepository;
+
+    private KalahGameHistory history;
+
+    @Before
+    public void setUp() {
+        history = new KalahGameHistory(moveRepository, snapshotRepository, new KalahGameMetrics(new SimpleMeterRegistry()), 2);
+    }
+
+    @Test
+    public void shouldReplayFromNearestSnapshot() throws Exception {
+        //given
+        var start = new KalahGameRecord(UUID.randomUUID(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+        var second = KalahGame.makeMove(KalahGame.makeMove(start, 1), 2);
+        var third = KalahGame.makeMove(second, 8);
+        var latest = KalahGame.makeMove(third, 3).withoutHistory();
+        var id = start.getId();
+        when(snapshotRepository.findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(eq(id), eq(3L)))
+                .thenReturn(Mono.just(new KalahGameSnapshot(second)));
+        when(moveRepository.findMoves(eq(id), eq(2L), eq(3L)))
+                .thenReturn(Flux.just(new KalahMoveEvent(id, 3, 8, KalahGame.hash(third))));
+        //when, then
+        StepVerifier.create(history.replay(latest, 3))
+                .expectNextMatches(x -> x.getMoveCount() == 3 && x.getState() == third.getState() &&
+                        Arrays.equals(x.getStatus(), third.getStatus()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldFailWhenReplayedMoveDoesNotMatchLog() {
+        //given
+        var game = new KalahGameRecord(UUID.randomUUID(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+        var id = game.getId();
+        when(moveRepository.findMoves(eq(id), eq(0L), anyLong())).thenReturn(Flux.just(new KalahMoveEvent(id, 1, 1, 42)));
+        //when, then
+        StepVerifier.create(history.restore(game))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowMoveLogNotFoundWhenMovesWereNotLogged() {
+        //given
+        var game = new KalahGameRecord(UUID.randomUUID(), new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+        var latest = new KalahGameRecord(game.getId(), game.getStatus(), game.getState(), game.getVariant(), 3, 1L);
+        when(snapshotRepository.findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(eq(game.getId()), eq(1L)))
+                .thenReturn(Mono.empty());
+        when(moveRepository.findMoves(eq(game.getId()), eq(0L), eq(1L))).thenReturn(Flux.empty());
+        //when, then
+        StepVerifier.create(history.replay(latest, 1))
+                .expectError(MoveLogNotFoundException.class)
+                .verify();
+    }
+}
@@ -6,15 +6,19 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(SpringRunner.class)
 @DataMongoTest
@@ -41,4 +45,48 @@ public class KalahGameRepositoryTest {
         assertEquals(state, result.getState());
         assertArrayEquals(status, result.getStatus());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldListGamesOfStateAfterId() {
+        // given
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var games = List.of(
+                new KalahGameRecord(UUID.randomUUID(), status, GameState.NORTH_TURN),
+                new KalahGameRecord(UUID.randomUUID(), status, GameState.NORTH_TURN),
+                new KalahGameRecord(UUID.randomUUID(), status, GameState.NORTH_TURN),
+                new KalahGameRecord(UUID.randomUUID(), status, GameState.SOUTH_TURN));
+        repository.saveAll(games).blockLast(Duration.ofSeconds(30));
+        // when
+        var first = repository.findByStateAndIdGreaterThanOrderByIdAsc(GameState.NORTH_TURN, new UUID(0, 0), PageRequest.of(0, 2))
+                .collectList().block(Duration.ofSeconds(30));
+        var second = repository.findByStateAndIdGreaterThanOrderByIdAsc(GameState.NORTH_TURN, first.get(1).getId(), PageRequest.of(0, 2))
+                .collectList().block(Duration.ofSeconds(30));
+        // then
+        assertEquals(2, first.size());
+        assertTrue(second.size() >= 1);
+        var listed = first.stream().map(KalahGameRecord::getId).collect(Collectors.toList());
+        second.forEach(x -> {
+            assertEquals(GameState.NORTH_TURN, x.getState());
+            assertTrue(!listed.contains(x.getId()));
+        });
+    }
+
+    @Test
+    public void shouldReplaceOnlyGamesOfStoredVersion() {
+        // given
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var current = repository.save(new KalahGameRecord(UUID.randomUUID(), status, GameState.SOUTH_TURN))
+                .block(Duration.ofSeconds(30));
+        var saved = repository.save(new KalahGameRecord(UUID.randomUUID(), status, GameState.SOUTH_TURN))
+                .block(Duration.ofSeconds(30));
+        var stale = saved.withVersion(saved.getVersion());
+        repository.save(saved).block(Duration.ofSeconds(30));
+        // when
+        var replaced = repository.replaceAll(List.of(current, stale)).collectList().block(Duration.ofSeconds(30));
+        // then
+        assertEquals(1, replaced.size());
+        assertEquals(current.getId(), replaced.get(0).getId());
+        var stored = repository.findById(current.getId()).block(Duration.ofSeconds(30));
+        assertEquals(Long.valueOf(current.getVersion() + 1), stored.getVersion());
+    }
+}
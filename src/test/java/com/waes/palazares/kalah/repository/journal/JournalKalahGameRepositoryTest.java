@@ -0,0 +1,110 @@
+package com.waes.palazares.kalah.repository.journal;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import reactor.test.StepVerifier;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class JournalKalahGameRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path path;
+
+    @Before
+    public void setUp() {
+        path = folder.getRoot().toPath().resolve("games.journal");
+    }
+
+    private JournalKalahGameRepository open() {
+        return new JournalKalahGameRepository(path.toString(), 4, 60_000, 3600);
+    }
+
+    @Test
+    public void shouldRejectSaveOfStaleVersion() throws Exception {
+        //given
+        var repository = open();
+        var saved = repository.save(new KalahGameRecord()).block();
+        var moved = repository.save(KalahGame.makeMove(saved, 1)).block();
+        //when, then
+        StepVerifier.create(repository.save(KalahGame.makeMove(saved, 2)))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        StepVerifier.create(repository.findById(saved.getId())).expectNext(moved).verifyComplete();
+        repository.destroy();
+    }
+
+    @Test
+    public void shouldRecoverLatestGamesAfterCompaction() throws Exception {
+        //given
+        var repository = open();
+        var games = new ArrayList<KalahGameRecord>();
+        for (int i = 0; i < 20; i++) {
+            var game = repository.save(new KalahGameRecord(KalahVariant.of(4, 3, false))).block();
+            games.add(repository.save(KalahGame.makeMove(game, 2).withExpiration(Duration.ofDays(1), Duration.ofDays(7))).block());
+        }
+        repository.deleteById(games.get(0).getId()).block();
+        repository.destroy();
+        //when
+        var reopened = open();
+        //then
+        assertNull(reopened.findById(games.get(0).getId()).block());
+        for (int i = 1; i < games.size(); i++) {
+            var game = reopened.findById(games.get(i).getId()).block();
+            assertEquals(games.get(i), game);
+            assertEquals(games.get(i).getExpireAt().toEpochMilli(), game.getExpireAt().toEpochMilli());
+        }
+        assertEquals(Long.valueOf(19L), reopened.count().block());
+        assertEquals(Long.valueOf(19L), reopened.findByIdGreaterThanOrderByIdAsc(new UUID(0, 0), PageRequest.of(0, 100)).count().block());
+        reopened.destroy();
+    }
+
+    @Test
+    public void shouldSkipTornSlotOnRecovery() throws Exception {
+        //given
+        var repository = open();
+        var saved = repository.save(new KalahGameRecord()).block();
+        repository.save(KalahGame.makeMove(saved, 1)).block();
+        repository.destroy();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the second slot holds the move, a byte of its pits is lost
+            var file = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            file.put(JournalKalahGameRepository.SLOT_SIZE + 100, (byte) 1);
+            file.force();
+        }
+        //when
+        var reopened = open();
+        //then
+        assertEquals(saved, reopened.findById(saved.getId()).block());
+        reopened.destroy();
+    }
+
+    @Test
+    public void shouldRemoveExpiredGames() throws Exception {
+        //given
+        var repository = open();
+        var expired = repository.save(new KalahGameRecord().withExpiration(Duration.ofSeconds(-1), Duration.ofSeconds(-1))).block();
+        var live = repository.save(new KalahGameRecord().withExpiration(Duration.ofDays(1), Duration.ofDays(1))).block();
+        //when
+        repository.expire();
+        //then
+        assertNull(repository.findById(expired.getId()).block());
+        assertNotNull(repository.findById(live.getId()).block());
+        repository.destroy();
+    }
+}
@@ -0,0 +1,116 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class InMemoryKalahGameRepositoryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryKalahGameRepository repository = new InMemoryKalahGameRepository();
+
+    @Test
+    public void shouldRejectSaveOfStaleVersion() throws Exception {
+        //given
+        var saved = repository.save(new KalahGameRecord()).block();
+        var moved = repository.save(KalahGame.makeMove(saved, 1)).block();
+        //when, then
+        assertEquals(Long.valueOf(1L), moved.getVersion());
+        StepVerifier.create(repository.save(KalahGame.makeMove(saved, 2)))
+                .expectError(OptimisticLockingFailureException.class)
+                .verify();
+        StepVerifier.create(repository.findById(saved.getId())).expectNext(moved).verifyComplete();
+    }
+
+    @Test
+    public void shouldRejectInsertOfExistingGame() {
+        //given
+        var game = new KalahGameRecord();
+        repository.save(game).block();
+        //when, then
+        StepVerifier.create(repository.save(game))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldListGamesOfStateInUnsignedIdOrder() {
+        //given
+        var status = KalahVariant.DEFAULT.initialStatus();
+        var first = new KalahGameRecord(new UUID(1, 0), status, GameState.SOUTH_TURN);
+        var second = new KalahGameRecord(new UUID(-1, 0), status, GameState.SOUTH_TURN);
+        var other = new KalahGameRecord(new UUID(2, 0), status, GameState.NORTH_TURN);
+        repository.saveAll(List.of(second, other, first)).blockLast();
+        //when, then
+        StepVerifier.create(repository.findByStateAndIdGreaterThanOrderByIdAsc(GameState.SOUTH_TURN, new UUID(0, 0), PageRequest.of(0, 1)))
+                .expectNextMatches(x -> x.getId().equals(first.getId()))
+                .verifyComplete();
+        StepVerifier.create(repository.findByStateAndIdGreaterThanOrderByIdAsc(GameState.SOUTH_TURN, first.getId(), PageRequest.of(0, 1)))
+                .expectNextMatches(x -> x.getId().equals(second.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldRestoreGamesFromFile() throws Exception {
+        //given
+        var path = folder.getRoot().toPath().resolve("games.bin").toString();
+        var storage = new InMemoryKalahGameRepository(path, 0);
+        var variant = KalahVariant.of(4, 3, false);
+        var game = storage.save(KalahGame.makeMove(new KalahGameRecord(variant), 2).withExpiration(Duration.ofDays(1), Duration.ofDays(7))).block();
+        //when
+        storage.destroy();
+        var restored = new InMemoryKalahGameRepository(path, 0).findById(game.getId()).block();
+        //then
+        assertNotNull(restored);
+        assertEquals(game, restored);
+        assertEquals(variant, restored.getVariant());
+        assertEquals(game.getCreatedAt().toEpochMilli(), restored.getCreatedAt().toEpochMilli());
+        assertEquals(game.getExpireAt().toEpochMilli(), restored.getExpireAt().toEpochMilli());
+    }
+
+    @Test
+    public void shouldRemoveExpiredGamesOnFlush() {
+        //given
+        var expired = new KalahGameRecord().withExpiration(Duration.ofSeconds(-1), Duration.ofSeconds(-1));
+        var live = new KalahGameRecord().withExpiration(Duration.ofDays(1), Duration.ofDays(1));
+        repository.saveAll(List.of(expired, live)).blockLast();
+        //when
+        repository.flush();
+        //then
+        assertNull(repository.findById(expired.getId()).block());
+        assertNotNull(repository.findById(live.getId()).block());
+    }
+
+    @Test
+    public void shouldListPageAfterIdWithoutRemovedGames() {
+        //given
+        var status = KalahVariant.DEFAULT.initialStatus();
+        var games = List.of(new KalahGameRecord(new UUID(1, 0), status, GameState.SOUTH_TURN),
+                new KalahGameRecord(new UUID(2, 0), status, GameState.SOUTH_TURN),
+                new KalahGameRecord(new UUID(3, 0), status, GameState.SOUTH_TURN),
+                new KalahGameRecord(new UUID(4, 0), status, GameState.SOUTH_TURN));
+        repository.saveAll(games).blockLast();
+        //when
+        repository.deleteById(games.get(1).getId()).block();
+        //then
+        StepVerifier.create(repository.findByIdGreaterThanOrderByIdAsc(games.get(0).getId(), PageRequest.of(0, 2)))
+                .expectNextMatches(x -> x.getId().equals(games.get(2).getId()))
+                .expectNextMatches(x -> x.getId().equals(games.get(3).getId()))
+                .verifyComplete();
+    }
+}
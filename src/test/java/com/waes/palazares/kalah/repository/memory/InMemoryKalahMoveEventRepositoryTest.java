@@ -0,0 +1,41 @@
+package com.waes.palazares.kalah.repository.memory;
+
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+
+public class InMemoryKalahMoveEventRepositoryTest {
+    private final InMemoryKalahMoveEventRepository repository = new InMemoryKalahMoveEventRepository();
+
+    @Test
+    public void shouldFindMovesInRange() {
+        //given
+        var gameId = UUID.randomUUID();
+        repository.insert(List.of(new KalahMoveEvent(gameId, 1, 1, 11), new KalahMoveEvent(gameId, 2, 2, 22),
+                new KalahMoveEvent(gameId, 3, 9, 33), new KalahMoveEvent(UUID.randomUUID(), 2, 3, 44))).blockLast();
+        //when, then
+        StepVerifier.create(repository.findMoves(gameId, 1, 2))
+                .expectNextMatches(x -> x.getSeq() == 2 && x.getHash() == 22)
+                .verifyComplete();
+        StepVerifier.create(repository.findMoves(gameId, 1, Long.MAX_VALUE))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldRejectTakenSequenceNumber() {
+        //given
+        var gameId = UUID.randomUUID();
+        repository.insert(List.of(new KalahMoveEvent(gameId, 1, 1, 11))).blockLast();
+        //when, then
+        StepVerifier.create(repository.insert(List.of(new KalahMoveEvent(gameId, 2, 2, 22), new KalahMoveEvent(gameId, 1, 3, 33))))
+                .expectNextCount(1)
+                .expectError(DuplicateKeyException.class)
+                .verify();
+        StepVerifier.create(repository.findMoves(gameId, 0, 2)).expectNextCount(2).verifyComplete();
+    }
+}
@@ -0,0 +1,70 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.event.KalahGameEvents;
+import com.waes.palazares.kalah.exception.InvalidPitIdException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.memory.InMemoryKalahGameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BlockingKalahGameServiceTest {
+    private final InMemoryKalahGameRepository repository = new InMemoryKalahGameRepository();
+
+    private KalahGameCache cache;
+
+    private KalahGameMetrics metrics;
+
+    private BlockingKalahGameService service;
+
+    @Before
+    public void setUp() {
+        metrics = new KalahGameMetrics(new SimpleMeterRegistry());
+        cache = new KalahGameCache(repository, metrics, 100, 60, 86400, 604800);
+        service = new BlockingKalahGameService(repository, cache, metrics, new KalahGameEvents(60), "optimistic", 3);
+    }
+
+    @Test
+    public void shouldMoveAndCacheStoredGame() throws Exception {
+        //given
+        var created = service.create(null, null, null);
+        //when
+        var moved = service.move(created.getId().toString(), "1");
+        //then
+        var stored = service.get(created.getId().toString());
+        assertEquals(GameState.SOUTH_TURN, stored.getState());
+        assertEquals(Long.valueOf(1L), stored.getVersion());
+        assertArrayEquals(new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}, stored.getStatus());
+        assertSame(moved, cache.findById(created.getId()).block(Duration.ofSeconds(5)));
+    }
+
+    @Test(expected = InvalidPitIdException.class)
+    public void shouldThrowInvalidPitIdWhenPitIsStoreOfBoard() throws Exception {
+        //given
+        var created = service.create(4, 4, null);
+        //when
+        service.move(created.getId().toString(), "5");
+    }
+
+    @Test(expected = InvalidRecordException.class)
+    public void shouldThrowInvalidRecordWhenGameDoesNotExist() throws Exception {
+        //when
+        service.get(UUID.randomUUID().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMoveModeWithPendingMoves() {
+        //when
+        new BlockingKalahGameService(repository, cache, metrics, new KalahGameEvents(60), "write-behind", 3);
+    }
+}
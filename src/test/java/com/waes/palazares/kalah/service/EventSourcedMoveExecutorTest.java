@@ -0,0 +1,174 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahMoveEvent;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import com.waes.palazares.kalah.exception.ConcurrentMoveException;
+import com.waes.palazares.kalah.history.KalahGameHistory;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import com.waes.palazares.kalah.repository.KalahGameSnapshotRepository;
+import com.waes.palazares.kalah.repository.KalahMoveEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EventSourcedMoveExecutorTest {
+    @Mock
+    private KalahGameRepository repository;
+
+    @Mock
+    private KalahMoveEventRepository moveRepository;
+
+    @Mock
+    private KalahGameSnapshotRepository snapshotRepository;
+
+    private EventSourcedMoveExecutor executor;
+
+    @Before
+    public void setUp() {
+        var metrics = new KalahGameMetrics(new SimpleMeterRegistry());
+        var history = new KalahGameHistory(moveRepository, snapshotRepository, metrics, 2);
+        executor = new EventSourcedMoveExecutor(new KalahGameCache(repository, metrics, 100, 60, 86400, 604800), history, 2, 3600);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldAppendMovesWithoutSavingGame() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = storedGame(gameId, status, Instant.now());
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(moveRepository.findMoves(eq(gameId), eq(0L), anyLong())).thenReturn(Flux.empty());
+        when(moveRepository.insert(anyList())).thenAnswer(x -> Flux.fromIterable(x.<List<KalahMoveEvent>>getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getMoveCount() == 1 && x.getPrevious() == null)
+                .verifyComplete();
+        //then
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(moveRepository, times(1)).insert(captor.capture());
+        var event = (KalahMoveEvent) captor.getValue().get(0);
+        assertEquals(1, event.getSeq());
+        assertEquals(1, event.getPitId());
+        assertTrue(event.getExpireAt().isAfter(Instant.now().plus(Duration.ofDays(6))));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSaveGameAndSnapshotWhenIntervalIsReached() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(2L)));
+        when(moveRepository.findMoves(eq(gameId), eq(0L), anyLong())).thenReturn(Flux.empty());
+        when(moveRepository.insert(anyList())).thenAnswer(x -> Flux.fromIterable(x.<List<KalahMoveEvent>>getArgument(0)));
+        when(snapshotRepository.saveAll(anyList())).thenAnswer(x -> Flux.fromIterable(x.getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(KalahGame.makeMove(r, 1), 2)))
+                .expectNextMatches(x -> x.getMoveCount() == 2 && x.getVersion() == 2L)
+                .verifyComplete();
+        //then
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(moveRepository, times(1)).insert(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        verify(snapshotRepository, times(1)).saveAll(anyList());
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSaveGameWhenStoredExpirationFallsBehind() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = storedGame(gameId, status, Instant.now().minus(Duration.ofDays(2)));
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(2L)));
+        when(moveRepository.findMoves(eq(gameId), eq(0L), anyLong())).thenReturn(Flux.empty());
+        when(moveRepository.insert(anyList())).thenAnswer(x -> Flux.fromIterable(x.<List<KalahMoveEvent>>getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getMoveCount() == 1 && x.getVersion() == 2L)
+                .verifyComplete();
+        //then
+        var captor = ArgumentCaptor.forClass(KalahGameRecord.class);
+        verify(repository, times(1)).save(captor.capture());
+        assertTrue(captor.getValue().getExpireAt().isAfter(Instant.now().plus(Duration.ofDays(6))));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSaveGameWhenItIsFinished() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{0, 0, 0, 0, 0, 1, 34, 1, 1, 1, 1, 1, 1, 31};
+        var game = storedGame(gameId, status, Instant.now());
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(2L)));
+        when(moveRepository.findMoves(eq(gameId), eq(0L), anyLong())).thenReturn(Flux.empty());
+        when(moveRepository.insert(anyList())).thenAnswer(x -> Flux.fromIterable(x.<List<KalahMoveEvent>>getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 6)))
+                .expectNextMatches(x -> x.getState() == GameState.FINISHED && x.getVersion() == 2L)
+                .verifyComplete();
+        //then
+        var captor = ArgumentCaptor.forClass(KalahGameRecord.class);
+        verify(repository, times(1)).save(captor.capture());
+        assertEquals(GameState.FINISHED, captor.getValue().getState());
+        assertTrue(captor.getValue().getExpireAt().isBefore(Instant.now().plus(Duration.ofDays(2))));
+    }
+
+    @Test
+    public void shouldRetryAndThrowConcurrentMoveWhenMoveIsAppendedConcurrently() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(moveRepository.findMoves(eq(gameId), eq(0L), anyLong())).thenReturn(Flux.empty());
+        when(moveRepository.insert(anyList())).thenReturn(Flux.error(new DuplicateKeyException("seq")));
+        //when, then
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectError(ConcurrentMoveException.class)
+                .verify();
+        verify(repository, times(3)).findById(eq(gameId));
+    }
+
+    /**
+     * Game saved at the given time with the default expiration of a game in progress
+     */
+    private static KalahGameRecord storedGame(UUID gameId, int[] status, Instant savedAt) {
+        return new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, KalahVariant.DEFAULT, 0, 1L,
+                savedAt, null, savedAt.plus(Duration.ofDays(7)));
+    }
+}
@@ -1,34 +1,71 @@
 package com.waes.palazares.kalah.service;
 
+import com.waes.palazares.kalah.ai.KalahAi;
+import com.waes.palazares.kalah.ai.ParallelKalahAi;
+import com.waes.palazares.kalah.cache.KalahGameCache;
 import com.waes.palazares.kalah.domain.GameState;
 import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.domain.KalahVariant;
+import com.waes.palazares.kalah.endgame.KalahEndgameTable;
+import com.waes.palazares.kalah.event.KalahGameEvents;
+import com.waes.palazares.kalah.history.KalahGameHistory;
 import com.waes.palazares.kalah.exception.*;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
 import com.waes.palazares.kalah.repository.KalahGameRepository;
+import com.waes.palazares.kalah.repository.KalahGameSnapshotRepository;
+import com.waes.palazares.kalah.repository.KalahMoveEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
 public class KalahGameServiceImplTest {
-    @InjectMocks
     private KalahGameServiceImpl service;
 
     @Mock
     private KalahGameRepository repository;
 
+    @Mock
+    private KalahMoveEventRepository moveRepository;
+
+    @Mock
+    private KalahGameSnapshotRepository snapshotRepository;
+
+    private SimpleMeterRegistry registry;
+
+    private KalahGameEvents events;
+
     private static String id = UUID.randomUUID().toString();
 
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        var metrics = new KalahGameMetrics(registry);
+        var cache = new KalahGameCache(repository, metrics, 100, 60, 86400, 604800);
+        events = new KalahGameEvents(60);
+        service = new KalahGameServiceImpl(cache, new OptimisticMoveExecutor(cache, 2), metrics, events,
+                new KalahAi(8, 50, 10), new ParallelKalahAi(2, 8, 50, 10), new KalahEndgameTable(""),
+                new KalahGameHistory(moveRepository, snapshotRepository, metrics, 4), 3, 10, 2, 3);
+    }
+
     @Test
     public void shouldThrowInvalidIdWhenGameIdIsNull() {
         StepVerifier
@@ -77,8 +114,19 @@ public class KalahGameServiceImplTest {
                 .verify();
     }
 
+    @Test
+    public void shouldThrowInvalidPitIdWhenPitIdIsBiggerThanLargestBoard() {
+        StepVerifier
+                .create(service.move(id, "26"))
+                .expectError(InvalidPitIdException.class)
+                .verify();
+    }
+
     @Test
     public void shouldThrowInvalidPitIdWhenPitIdIsBiggerThan13() {
+        // given
+        when(repository.findById(any(UUID.class))).thenReturn(Mono.just(new KalahGameRecord()));
+        // when, then
         StepVerifier
                 .create(service.move(id, "14"))
                 .expectError(InvalidPitIdException.class)
@@ -87,12 +135,30 @@ public class KalahGameServiceImplTest {
 
     @Test
     public void shouldThrowInvalidPitIdWhenPitIdIsStorage() {
+        // given
+        when(repository.findById(any(UUID.class))).thenReturn(Mono.just(new KalahGameRecord()));
+        // when, then
         StepVerifier
                 .create(service.move(id, "7"))
                 .expectError(InvalidPitIdException.class)
                 .verify();
     }
 
+    @Test
+    public void shouldMoveFromPitOfVariantBoard() {
+        // given
+        var game = new KalahGameRecord(KalahVariant.of(8, 2));
+        when(repository.findById(eq(game.getId()))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        // when, then
+        StepVerifier
+                .create(service.move(game.getId().toString(), "7"))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN && x.getVariant().equals(game.getVariant()) &&
+                        Arrays.equals(x.getStatus(), new int[]{2, 2, 2, 2, 2, 2, 0, 3, 1, 2, 2, 2, 2, 2, 2, 2, 2, 0}))
+                .expectComplete()
+                .verify();
+    }
+
     @Test
     public void shouldThrowInvalidRecordExceptionWhenNoRecordFound() {
         // given
@@ -183,6 +249,50 @@ public class KalahGameServiceImplTest {
         verify(repository, times(0)).findById(any(UUID.class));
     }
 
+    @Test
+    public void shouldCreateNewGameOfVariant() {
+        //given
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when
+        StepVerifier
+                .create(service.create(4, 3, false))
+                .expectNextMatches(x -> x.getVariant().equals(KalahVariant.of(4, 3, false)) &&
+                        Arrays.equals(x.getStatus(), new int[]{3, 3, 3, 3, 0, 3, 3, 3, 3, 0}))
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowInvalidVariantWhenTooManyHouses() {
+        StepVerifier
+                .create(service.create(13, null, null))
+                .expectError(InvalidVariantException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldCreateNewGamesWithSingleSave() {
+        //given
+        when(repository.saveAll(anyList())).thenAnswer(x -> Flux.fromIterable(x.<List<KalahGameRecord>>getArgument(0)));
+        //when
+        StepVerifier
+                .create(service.createAll(3))
+                .expectNextCount(3)
+                .expectComplete()
+                .verify();
+        //then
+        verify(repository, times(1)).saveAll(anyList());
+        verify(repository, times(0)).save(any());
+    }
+
+    @Test
+    public void shouldThrowInvalidBatchSizeWhenTooManyGames() {
+        StepVerifier
+                .create(service.createAll(11))
+                .expectError(InvalidBatchSizeException.class)
+                .verify();
+    }
+
     @Test
     public void shouldMakeAMove() {
         //given
@@ -191,6 +301,7 @@ public class KalahGameServiceImplTest {
         var state = GameState.SOUTH_TURN;
         var game = new KalahGameRecord(gameId, status, state);
         when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
         //when
         StepVerifier
                 .create(service.move(gameId.toString(), "1"))
@@ -199,6 +310,355 @@ public class KalahGameServiceImplTest {
                 .verify();
         //then
         verify(repository).findById(eq(gameId));
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    public void shouldRetryMoveWhenGameWasModifiedConcurrently() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var state = GameState.SOUTH_TURN;
+        var game = new KalahGameRecord(gameId, status, state, 1L);
+        var saved = new KalahGameRecord(gameId, new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}, state, 2L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")), Mono.just(saved));
+        //when
+        StepVerifier
+                .create(service.move(gameId.toString(), "1"))
+                .expectNext(saved)
+                .expectComplete()
+                .verify();
+        //then
+        verify(repository, times(2)).findById(eq(gameId));
+        verify(repository, times(2)).save(any());
+    }
+
+    @Test
+    public void shouldThrowConcurrentMoveExceptionWhenRetriesExhausted() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var state = GameState.SOUTH_TURN;
+        var game = new KalahGameRecord(gameId, status, state, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenReturn(Mono.error(new OptimisticLockingFailureException("conflict")));
+        //when, then
+        StepVerifier
+                .create(service.move(gameId.toString(), "1"))
+                .expectError(ConcurrentMoveException.class)
+                .verify();
+        verify(repository, times(3)).save(any());
+    }
+
+    @Test
+    public void shouldApplyAllMovesWithSingleSave() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when
+        StepVerifier
+                .create(service.moves(gameId.toString(), List.of(1, 2, 9)))
+                .expectNextMatches(x -> x.getFailedMoveIndex() == -1 && x.getFailure() == null &&
+                        x.getGame().getState() == GameState.SOUTH_TURN &&
+                        Arrays.equals(x.getGame().getStatus(), new int[]{1, 1, 8, 8, 8, 8, 2, 7, 0, 7, 7, 7, 7, 1}))
+                .expectComplete()
+                .verify();
+        //then
+        verify(repository, times(1)).findById(eq(gameId));
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    public void shouldStopAtFirstFailedMove() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when
+        StepVerifier
+                .create(service.moves(gameId.toString(), List.of(1, 1, 2)))
+                .expectNextMatches(x -> x.getFailedMoveIndex() == 1 && x.getFailure() instanceof InvalidMoveException &&
+                        Arrays.equals(x.getGame().getStatus(), new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}))
+                .expectComplete()
+                .verify();
+        //then
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    public void shouldNotSaveWhenFirstMoveFailed() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when
+        StepVerifier
+                .create(service.moves(gameId.toString(), List.of(7, 1)))
+                .expectNextMatches(x -> x.getFailedMoveIndex() == 0 && x.getFailure() instanceof InvalidPitIdException &&
+                        x.getGame() == game)
+                .expectComplete()
+                .verify();
+        //then
         verify(repository, times(0)).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldThrowInvalidBatchSizeWhenNoMoves() {
+        StepVerifier
+                .create(service.moves(id, Collections.emptyList()))
+                .expectError(InvalidBatchSizeException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowInvalidBatchSizeWhenTooManyMoves() {
+        StepVerifier
+                .create(service.moves(id, List.of(1, 2, 3, 4)))
+                .expectError(InvalidBatchSizeException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldTimeMovesByOutcome() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when
+        StepVerifier.create(service.move(gameId.toString(), "1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.move(gameId.toString(), "1")).expectError(InvalidMoveException.class).verify();
+        StepVerifier.create(service.move(gameId.toString(), "x")).expectError(InvalidPitIdException.class).verify();
+        //then
+        assertEquals(1, registry.get(KalahGameMetrics.MOVE).tag("outcome", KalahGameMetrics.SUCCESS).timer().count());
+        assertEquals(1, registry.get(KalahGameMetrics.MOVE).tag("outcome", "InvalidMoveException").timer().count());
+        assertEquals(1, registry.get(KalahGameMetrics.MOVE).tag("outcome", "InvalidPitIdException").timer().count());
+        assertEquals(1, registry.get(KalahGameMetrics.REPOSITORY_LOAD).timer().count());
+        assertEquals(1, registry.get(KalahGameMetrics.REPOSITORY_SAVE).timer().count());
+    }
+
+    @Test
+    public void shouldPublishMovedGame() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when, then
+        StepVerifier.create(service.events(gameId.toString()))
+                .then(() -> service.move(gameId.toString(), "1").subscribe())
+                .expectNextMatches(x -> x.getId().equals(gameId) &&
+                        Arrays.equals(x.getStatus(), new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowInvalidIdWhenEventsGameIdIsWrong() {
+        StepVerifier
+                .create(service.events("123"))
+                .expectError(InavlidIdException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldGetGameFromCache() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when
+        StepVerifier.create(service.get(gameId.toString())).expectNext(game).verifyComplete();
+        StepVerifier.create(service.get(gameId.toString())).expectNext(game).verifyComplete();
+        //then
+        verify(repository, times(1)).findById(eq(gameId));
+    }
+
+    @Test
+    public void shouldThrowInvalidRecordExceptionWhenGetNotExistingGame() {
+        // given
+        when(repository.findById(any(UUID.class))).thenReturn(Mono.empty());
+        // when, then
+        StepVerifier
+                .create(service.get(id))
+                .expectError(InvalidRecordException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldMakeAiMove() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(x.getArgument(0)));
+        //when, then
+        StepVerifier.create(service.aiMove(gameId.toString(), 1, 50))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN &&
+                        Arrays.equals(x.getStatus(), new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0}))
+                .verifyComplete();
+        assertEquals(1, registry.get(KalahGameMetrics.AI_MOVE).tag("outcome", KalahGameMetrics.SUCCESS).timer().count());
+    }
+
+    @Test
+    public void shouldThrowInvalidMoveWhenAiHasNoLegalMove() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{5, 5, 5, 0, 0, 0, 10, 0, 0, 0, 0, 0, 0, 10};
+        var game = new KalahGameRecord(gameId, status, GameState.NORTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.aiMove(gameId.toString(), null, null))
+                .expectError(InvalidMoveException.class)
+                .verify();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void shouldThrowGameFinishedWhenAiMovesFinishedGame() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{0, 0, 0, 0, 0, 0, 40, 1, 1, 1, 1, 1, 1, 26};
+        var game = new KalahGameRecord(gameId, status, GameState.FINISHED);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.aiMove(gameId.toString(), null, null))
+                .expectError(GameFinishedException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowInvalidSearchBudgetWhenDepthIsNotPositive() {
+        StepVerifier
+                .create(service.aiMove(id, 0, null))
+                .expectError(InvalidSearchBudgetException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldFindBestMoveWithoutSaving() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{2, 0, 0, 0, 1, 0, 10, 9, 1, 0, 0, 0, 0, 10};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.bestMove(gameId.toString(), null, null))
+                .expectNextMatches(x -> x.getGame() == game && x.getPitId() == 5 && x.getScore() == 10)
+                .verifyComplete();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void shouldThrowInvalidSearchBudgetWhenBestMoveTimeIsNotPositive() {
+        StepVerifier
+                .create(service.bestMove(id, null, -1))
+                .expectError(InvalidSearchBudgetException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldEvaluateFinishedGameExactly() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{0, 0, 0, 0, 0, 0, 40, 1, 1, 1, 1, 1, 1, 26};
+        var game = new KalahGameRecord(gameId, status, GameState.FINISHED);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.evaluate(gameId.toString()))
+                .expectNextMatches(x -> x.getScore() == 14 && x.isExact())
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldEvaluateWithSearchWhenEndgameTableIsDisabled() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{0, 0, 0, 0, 1, 0, 33, 3, 0, 0, 0, 0, 0, 35};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.evaluate(gameId.toString()))
+                .expectNextMatches(x -> x.getScore() == 2 && !x.isExact())
+                .verifyComplete();
+        assertEquals(1, registry.get(KalahGameMetrics.EVALUATION).tag("outcome", KalahGameMetrics.SUCCESS).timer().count());
+    }
+
+    @Test
+    public void shouldReplayStartOfGameWithoutMoveLog() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{0, 7, 7, 7, 7, 7, 1, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, KalahVariant.DEFAULT, 1, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(snapshotRepository.findFirstByGameIdAndMoveCountLessThanEqualOrderByMoveCountDesc(eq(gameId), eq(0L))).thenReturn(Mono.empty());
+        when(moveRepository.findMoves(eq(gameId), eq(0L), eq(0L))).thenReturn(Flux.empty());
+        //when, then
+        StepVerifier.create(service.replay(gameId.toString(), 0L))
+                .expectNextMatches(x -> x.getMoveCount() == 0 &&
+                        Arrays.equals(x.getStatus(), new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldThrowInvalidReplayWhenMoveWasNotPlayed() {
+        //given
+        var gameId = UUID.randomUUID();
+        var game = new KalahGameRecord(gameId, new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0}, GameState.SOUTH_TURN);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when, then
+        StepVerifier.create(service.replay(gameId.toString(), 1L))
+                .expectError(InvalidReplayException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldListPageWithNextGameId() {
+        //given
+        var first = new KalahGameRecord();
+        var second = new KalahGameRecord();
+        when(repository.findByStateAndIdGreaterThanOrderByIdAsc(eq(GameState.SOUTH_TURN), eq(new UUID(0, 0)), any()))
+                .thenReturn(Flux.just(first, second));
+        //when, then
+        StepVerifier.create(service.list("SOUTH_TURN", null, null))
+                .expectNextMatches(x -> x.getGames().equals(List.of(first, second)) && second.getId().equals(x.getNext()))
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldListLastPageWithoutNextGameId() {
+        //given
+        var after = UUID.randomUUID();
+        var game = new KalahGameRecord();
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(after), any())).thenReturn(Flux.just(game));
+        //when, then
+        StepVerifier.create(service.list(null, after.toString(), 3))
+                .expectNextMatches(x -> x.getGames().equals(List.of(game)) && x.getNext() == null)
+                .verifyComplete();
+    }
+
+    @Test
+    public void shouldThrowInvalidPageWhenStateIsUnknown() {
+        StepVerifier.create(service.list("PAUSED", null, null))
+                .expectError(InvalidPageException.class)
+                .verify();
+    }
+
+    @Test
+    public void shouldThrowInvalidPageWhenSizeIsTooLarge() {
+        StepVerifier.create(service.list(null, null, 4))
+                .expectError(InvalidPageException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,149 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.InvalidMoveException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MailboxMoveExecutorTest {
+    @Mock
+    private KalahGameRepository repository;
+
+    private MailboxMoveExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new MailboxMoveExecutor(new KalahGameCache(repository, new KalahGameMetrics(new SimpleMeterRegistry()), 100, 60, 86400, 604800), 2, 60_000, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    public void shouldApplyMovesInMemoryAndSaveOnce() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any())).thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(2L)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN)
+                .verifyComplete();
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 2)))
+                .expectNextMatches(x -> x.getState() == GameState.NORTH_TURN)
+                .verifyComplete();
+        executor.flush().block(Duration.ofSeconds(5));
+        //then
+        var captor = ArgumentCaptor.forClass(KalahGameRecord.class);
+        verify(repository, times(1)).findById(eq(gameId));
+        verify(repository, times(1)).save(captor.capture());
+        assertEquals(Long.valueOf(1L), captor.getValue().getVersion());
+        assertArrayEquals(new int[]{0, 0, 8, 8, 8, 8, 2, 7, 7, 6, 6, 6, 6, 0}, captor.getValue().getStatus());
+        assertEquals(Integer.valueOf(0), executor.size().block());
+    }
+
+    @Test
+    public void shouldSaveMovesWithNextBatchWhenSaveFails() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.save(any()))
+                .thenReturn(Mono.error(new IllegalStateException("Storage is not available")))
+                .thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(2L)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 2)))
+                .expectNextMatches(x -> x.getState() == GameState.NORTH_TURN)
+                .verifyComplete();
+        executor.flush().block(Duration.ofSeconds(5));
+        executor.flush().block(Duration.ofSeconds(5));
+        //then
+        var captor = ArgumentCaptor.forClass(KalahGameRecord.class);
+        verify(repository, times(2)).save(captor.capture());
+        assertEquals(Long.valueOf(1L), captor.getValue().getVersion());
+        assertArrayEquals(new int[]{6, 0, 7, 7, 7, 7, 1, 7, 6, 6, 6, 6, 6, 0}, captor.getValue().getStatus());
+        assertEquals(Integer.valueOf(0), executor.size().block());
+    }
+
+    @Test
+    public void shouldRebaseMovesWhenGameHasBeenStoredByAnotherInstance() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game), Mono.just(game.withVersion(5L)));
+        when(repository.save(any()))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("Version has changed")))
+                .thenAnswer(x -> Mono.just(((KalahGameRecord) x.getArgument(0)).withVersion(6L)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 2)))
+                .expectNextMatches(x -> x.getState() == GameState.NORTH_TURN)
+                .verifyComplete();
+        executor.flush().block(Duration.ofSeconds(5));
+        executor.flush().block(Duration.ofSeconds(5));
+        //then
+        var captor = ArgumentCaptor.forClass(KalahGameRecord.class);
+        verify(repository, times(2)).findById(eq(gameId));
+        verify(repository, times(2)).save(captor.capture());
+        assertEquals(Long.valueOf(5L), captor.getValue().getVersion());
+        assertArrayEquals(new int[]{6, 0, 7, 7, 7, 7, 1, 7, 6, 6, 6, 6, 6, 0}, captor.getValue().getStatus());
+    }
+
+    @Test
+    public void shouldNotSaveFailedMove() {
+        //given
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 9)))
+                .expectError(InvalidMoveException.class)
+                .verify();
+        executor.flush().block(Duration.ofSeconds(5));
+        //then
+        verify(repository, times(0)).save(any());
+        assertEquals(Integer.valueOf(0), executor.size().block());
+    }
+
+    @Test
+    public void shouldThrowInvalidRecordExceptionWhenNoRecordFound() {
+        //given
+        var gameId = UUID.randomUUID();
+        when(repository.findById(eq(gameId))).thenReturn(Mono.empty());
+        //when, then
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectError(InvalidRecordException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,65 @@
+package com.waes.palazares.kalah.service;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.UUID;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+
+@RunWith(JUnit4.class)
+public class RequestParserTest {
+
+    @Test
+    public void shouldParseGameIdsAsUuid() {
+        //given
+        var ids = new String[]{UUID.randomUUID().toString(), "00000000-0000-0000-0000-000000000000",
+                "ffffffff-ffff-ffff-ffff-ffffffffffff", "1-2-3-4-5", "+1-0-a-B-c", "000-0-0-0-00000000"};
+        for (var id : ids) {
+            //when
+            var parsed = RequestParser.parseGameId(id);
+            //then
+            assertEquals(id, UUID.fromString(id), parsed);
+        }
+    }
+
+    @Test
+    public void shouldRejectGameIdsNotInUuidFormat() {
+        //given
+        var ids = new String[]{"", "-", "----", "1-2-3-4", "1-2-3-4-5-6", "1-2-3-4-", "1-2-3-4-g", "1-2-3-4-+",
+                "1-2-3-4-5 ", "00000000-0000-0000-0000-0000000000000", "1-2-3-4-10000000000000000",
+                "1-2-3-4-8000000000000000"};
+        for (var id : ids) {
+            //when
+            var parsed = RequestParser.parseGameId(id);
+            //then
+            assertNull(id, parsed);
+        }
+    }
+
+    @Test
+    public void shouldParsePitIdsAsInteger() {
+        //given
+        var pitIds = new String[]{"1", "6", "13", "25", "+7", "007", "١"};
+        for (var pitId : pitIds) {
+            //when
+            var parsed = RequestParser.parsePitId(pitId);
+            //then
+            assertEquals(pitId, Integer.parseInt(pitId), parsed);
+        }
+    }
+
+    @Test
+    public void shouldRejectPitIdsOutsideOfTheLargestBoard() {
+        //given
+        var pitIds = new String[]{"", "+", "-", "0", "-1", "26", "2147483648", "99999999999", "1a", " 1", "1.0"};
+        for (var pitId : pitIds) {
+            //when
+            var parsed = RequestParser.parsePitId(pitId);
+            //then
+            assertEquals(pitId, 0, parsed);
+        }
+    }
+}
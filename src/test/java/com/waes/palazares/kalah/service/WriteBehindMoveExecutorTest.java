@@ -0,0 +1,144 @@
+package com.waes.palazares.kalah.service;
+
+import com.waes.palazares.kalah.KalahGame;
+import com.waes.palazares.kalah.cache.KalahGameCache;
+import com.waes.palazares.kalah.domain.GameState;
+import com.waes.palazares.kalah.domain.KalahGameRecord;
+import com.waes.palazares.kalah.exception.ConcurrentMoveException;
+import com.waes.palazares.kalah.exception.InvalidRecordException;
+import com.waes.palazares.kalah.metrics.KalahGameMetrics;
+import com.waes.palazares.kalah.repository.KalahGameRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.dao.DataAccessResourceFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WriteBehindMoveExecutorTest {
+    @Mock
+    private KalahGameRepository repository;
+
+    private WriteBehindMoveExecutor executor;
+
+    @After
+    public void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    public void shouldCoalesceMovesAndSaveOnce() {
+        //given
+        executor = executor(60_000, WriteBehindMoveExecutor.ACK_ENQUEUE);
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.replaceAll(any())).thenAnswer(x -> replaced(x.getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN)
+                .verifyComplete();
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 2)))
+                .expectNextMatches(x -> x.getState() == GameState.NORTH_TURN)
+                .verifyComplete();
+        executor.flush().block(Duration.ofSeconds(5));
+        //then
+        var captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(1)).findById(eq(gameId));
+        verify(repository, times(1)).replaceAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        var saved = (KalahGameRecord) captor.getValue().get(0);
+        assertEquals(Long.valueOf(1L), saved.getVersion());
+        assertArrayEquals(new int[]{0, 0, 8, 8, 8, 8, 2, 7, 7, 6, 6, 6, 6, 0}, saved.getStatus());
+    }
+
+    @Test
+    public void shouldAcknowledgeMoveWhenSaved() {
+        //given
+        executor = executor(10, WriteBehindMoveExecutor.ACK_FLUSH);
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.replaceAll(any())).thenAnswer(x -> replaced(x.getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN)
+                .verifyComplete();
+        //then
+        verify(repository, times(1)).replaceAll(any());
+    }
+
+    @Test
+    public void shouldSaveInNextBatchWhenSaveFails() {
+        //given
+        executor = executor(10, WriteBehindMoveExecutor.ACK_FLUSH);
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.replaceAll(any()))
+                .thenReturn(Flux.error(new DataAccessResourceFailureException("")))
+                .thenAnswer(x -> replaced(x.getArgument(0)));
+        //when
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectNextMatches(x -> x.getState() == GameState.SOUTH_TURN)
+                .verifyComplete();
+        //then
+        verify(repository, times(2)).replaceAll(any());
+    }
+
+    @Test
+    public void shouldFailAcknowledgementWhenSaveConflicts() {
+        //given
+        executor = executor(10, WriteBehindMoveExecutor.ACK_FLUSH);
+        var gameId = UUID.randomUUID();
+        var status = new int[]{6, 6, 6, 6, 6, 6, 0, 6, 6, 6, 6, 6, 6, 0};
+        var game = new KalahGameRecord(gameId, status, GameState.SOUTH_TURN, 1L);
+        when(repository.findById(eq(gameId))).thenReturn(Mono.just(game));
+        when(repository.replaceAll(any())).thenReturn(Flux.empty());
+        //when, then
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectError(ConcurrentMoveException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    public void shouldThrowInvalidRecordExceptionWhenNoRecordFound() {
+        //given
+        executor = executor(60_000, WriteBehindMoveExecutor.ACK_ENQUEUE);
+        var gameId = UUID.randomUUID();
+        when(repository.findById(eq(gameId))).thenReturn(Mono.empty());
+        //when, then
+        StepVerifier.create(executor.execute(gameId, r -> KalahGame.makeMove(r, 1)))
+                .expectError(InvalidRecordException.class)
+                .verify();
+    }
+
+    private static Flux<KalahGameRecord> replaced(List<KalahGameRecord> games) {
+        return Flux.fromIterable(games).map(x -> x.withVersion(x.getVersion() + 1));
+    }
+
+    private WriteBehindMoveExecutor executor(long flushIntervalMillis, String ack) {
+        var metrics = new KalahGameMetrics(new SimpleMeterRegistry());
+        return new WriteBehindMoveExecutor(new KalahGameCache(repository, metrics, 100, 60, 86400, 604800), metrics,
+                3, 1000, flushIntervalMillis, 100, ack);
+    }
+}
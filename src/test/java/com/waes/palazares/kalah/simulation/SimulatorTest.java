@@ -0,0 +1,68 @@
+package com.waes.palazares.kalah.simulation;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(JUnit4.class)
+public class SimulatorTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldPlayAllGames() {
+        //given
+        var settings = new SimulationSettings(5000, PolicyType.GREEDY, PolicyType.RANDOM, 6, 6, true, 4, 1);
+        //when
+        var stats = Simulator.start(settings, executor, 3).getCompletion().join();
+        //then
+        assertEquals(5000, stats.getGames());
+        assertEquals(5000, stats.getSouthWins() + stats.getNorthWins() + stats.getDraws());
+        assertTrue(stats.getSouthWinRate() > stats.getNorthWinRate());
+        assertTrue(stats.getAverageLength() > 0);
+        assertTrue(stats.getCaptures() > 0);
+        assertTrue(stats.getExtraTurns() > 0);
+    }
+
+    @Test
+    public void shouldRepeatSimulationWithAnyNumberOfWorkers() {
+        //given
+        var settings = new SimulationSettings(3000, PolicyType.RANDOM, PolicyType.RANDOM, 4, 3, true, 4, 7);
+        //when
+        var single = Simulator.start(settings, executor, 1).getCompletion().join();
+        var parallel = Simulator.start(settings, executor, 3).getCompletion().join();
+        //then
+        assertEquals(single.getSouthWins(), parallel.getSouthWins());
+        assertEquals(single.getMoves(), parallel.getMoves());
+        assertEquals(single.getCaptures(), parallel.getCaptures());
+    }
+
+    @Test
+    public void shouldPlayWithSearchPolicy() {
+        //given
+        var settings = new SimulationSettings(20, PolicyType.SEARCH, PolicyType.RANDOM, 6, 4, true, 2, 1);
+        //when
+        var stats = Simulator.start(settings, executor, 2).getCompletion().join();
+        //then
+        assertEquals(20, stats.getGames());
+    }
+
+    @Test
+    public void shouldRejectInvalidSettings() {
+        assertTrue(new SimulationSettings().isValid(100_000));
+        assertFalse(new SimulationSettings(10, PolicyType.RANDOM, PolicyType.RANDOM, 0, 6, true, 4, 1).isValid(100));
+        assertFalse(new SimulationSettings(1000, PolicyType.RANDOM, PolicyType.RANDOM, 6, 6, true, 4, 1).isValid(100));
+    }
+}